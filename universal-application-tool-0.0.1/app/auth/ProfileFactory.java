@@ -3,9 +3,11 @@ package auth;
 import com.google.common.base.Preconditions;
 import java.time.Clock;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import models.Account;
 import models.Applicant;
 import play.libs.concurrent.HttpExecutionContext;
+import repository.ApplicantRepository;
 import repository.DatabaseExecutionContext;
 
 public class ProfileFactory {
@@ -13,13 +15,18 @@ public class ProfileFactory {
   private Clock clock;
   private DatabaseExecutionContext dbContext;
   private HttpExecutionContext httpContext;
+  private Provider<ApplicantRepository> applicantRepositoryProvider;
 
   @Inject
   public ProfileFactory(
-      Clock clock, DatabaseExecutionContext dbContext, HttpExecutionContext httpContext) {
+      Clock clock,
+      DatabaseExecutionContext dbContext,
+      HttpExecutionContext httpContext,
+      Provider<ApplicantRepository> applicantRepositoryProvider) {
     this.clock = Preconditions.checkNotNull(clock);
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
+    this.applicantRepositoryProvider = Preconditions.checkNotNull(applicantRepositoryProvider);
   }
 
   public UatProfileData createNewApplicant() {
@@ -31,7 +38,7 @@ public class ProfileFactory {
   }
 
   public UatProfile wrapProfileData(UatProfileData p) {
-    return new UatProfile(dbContext, httpContext, p);
+    return new UatProfile(dbContext, httpContext, p, applicantRepositoryProvider.get());
   }
 
   private UatProfileData create(Roles role) {
@@ -3,13 +3,13 @@ package auth;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import com.google.common.base.Preconditions;
-import java.util.Comparator;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 import models.Account;
 import models.Applicant;
 import play.libs.concurrent.HttpExecutionContext;
+import repository.ApplicantRepository;
 import repository.DatabaseExecutionContext;
 
 /**
@@ -21,28 +21,26 @@ public class UatProfile {
   private DatabaseExecutionContext dbContext;
   private HttpExecutionContext httpContext;
   private UatProfileData profileData;
+  private ApplicantRepository applicantRepository;
 
   @Inject
   public UatProfile(
       DatabaseExecutionContext dbContext,
       HttpExecutionContext httpContext,
-      UatProfileData profileData) {
+      UatProfileData profileData,
+      ApplicantRepository applicantRepository) {
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
     this.profileData = Preconditions.checkNotNull(profileData);
+    this.applicantRepository = Preconditions.checkNotNull(applicantRepository);
   }
 
+  /** Returns the most recently created applicant for this profile's account. */
   public CompletableFuture<Applicant> getApplicant() {
-    return this.getAccount()
-        .thenApplyAsync(
-            (a) ->
-                a.getApplicants().stream()
-                    .sorted(
-                        Comparator.comparing(
-                            (applicant) -> applicant.getApplicantData().getCreatedTime()))
-                    .findFirst()
-                    .orElseThrow(),
-            httpContext.current());
+    return applicantRepository
+        .lookupApplicantForAccount(Long.valueOf(this.profileData.getId()))
+        .thenApplyAsync(applicant -> applicant.orElseThrow(), httpContext.current())
+        .toCompletableFuture();
   }
 
   public CompletableFuture<Account> getAccount() {
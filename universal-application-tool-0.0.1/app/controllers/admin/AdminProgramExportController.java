@@ -0,0 +1,244 @@
+package controllers.admin;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.stream.javadsl.FileIO;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import auth.Authorizers;
+import com.google.common.collect.ImmutableList;
+import export.CsvExporter;
+import export.ParallelExporter;
+import export.PdfPacketExporter;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.inject.Inject;
+import org.pac4j.play.java.Secure;
+import play.mvc.Controller;
+import play.mvc.Http.HeaderNames;
+import play.mvc.Result;
+import services.Path;
+import services.applicant.ApplicantService;
+import services.program.Column;
+import services.program.CsvExportConfig;
+import services.program.ExportDefinition;
+import services.program.ExportEngine;
+import services.program.PdfExportConfig;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+
+/**
+ * Controller for admins downloading the data of every applicant in the export formats of a
+ * program. Applicants are not yet linked to the programs they apply to, so the program only
+ * chooses the format: each export covers all applicants, as its route and handler names say.
+ */
+public class AdminProgramExportController extends Controller {
+  private static final Optional<String> PDF = Optional.of("application/pdf");
+
+  private final ProgramService programService;
+  private final ApplicantService applicantService;
+  private final ParallelExporter parallelExporter;
+  private final PdfPacketExporter pdfPacketExporter;
+
+  @Inject
+  public AdminProgramExportController(
+      ProgramService programService,
+      ApplicantService applicantService,
+      ParallelExporter parallelExporter,
+      PdfPacketExporter pdfPacketExporter) {
+    this.programService = checkNotNull(programService);
+    this.applicantService = checkNotNull(applicantService);
+    this.parallelExporter = checkNotNull(parallelExporter);
+    this.pdfPacketExporter = checkNotNull(pdfPacketExporter);
+  }
+
+  /**
+   * Downloads every applicant as a row of the program's CSV export. The response is streamed as
+   * applicants are loaded a page at a time, so it starts straight away and memory use does not
+   * grow with the number of applicants. Programs whose CSV export uses the {@link
+   * ExportEngine#SQL_CSV} engine are exported as by {@link #downloadAllApplicantsSqlCsv}.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public Result downloadAllApplicantsCsv(long programId) {
+    ProgramDefinition program;
+    try {
+      program = programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    }
+
+    Optional<ExportDefinition> definition = csvExportDefinition(program);
+    ImmutableList<Column> columns = csvConfig(program, definition).columns();
+    if (definition.map(d -> d.engine() == ExportEngine.SQL_CSV).orElse(false)) {
+      return csvResult(programId, applicantService.streamApplicantsAsCsv(columns));
+    }
+    return csvResult(
+        programId, new CsvExporter(columns).stream(applicantService.streamApplicants()));
+  }
+
+  /**
+   * Downloads the program's CSV export with its values extracted by the database, whichever
+   * engine the program's export is configured with. Applicant data is never loaded into the
+   * server, which makes this the cheaper choice for programs with many applicants.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public Result downloadAllApplicantsSqlCsv(long programId) {
+    ProgramDefinition program;
+    try {
+      program = programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    }
+
+    ImmutableList<Column> columns = csvConfig(program, csvExportDefinition(program)).columns();
+    return csvResult(programId, applicantService.streamApplicantsAsCsv(columns));
+  }
+
+  /**
+   * Downloads the same CSV as {@link #downloadAllApplicantsCsv} with the {@link ExportEngine#CSV}
+   * engine, but formats it on every core of the server, a partition of applicants at a time.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public Result downloadAllApplicantsParallelCsv(long programId) {
+    ProgramDefinition program;
+    try {
+      program = programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    }
+
+    ImmutableList<Column> columns = csvConfig(program, csvExportDefinition(program)).columns();
+    return csvResult(programId, parallelExporter.exportCsv(columns));
+  }
+
+  /**
+   * Downloads a ZIP archive of every applicant's PDF, filled in by the program's PDF export on
+   * every core of the server. Not found if the program has no PDF export.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public Result downloadAllApplicantsPdfZip(long programId) {
+    ProgramDefinition program;
+    try {
+      program = programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    }
+
+    Optional<PdfExportConfig> pdfConfig = pdfConfig(program);
+    if (pdfConfig.isEmpty()) {
+      return notFound(noPdfExport(programId));
+    }
+    return ok().chunked(parallelExporter.exportPdfZip(pdfConfig.get()))
+        .as("application/zip")
+        .withHeader(HeaderNames.CONTENT_DISPOSITION, attachment(programId, "zip"));
+  }
+
+  /**
+   * Downloads a packet: a single PDF of every applicant's form, filled in by the program's PDF
+   * export, one after another. The packet is built on disk before it is sent, so it may take a
+   * while to start. Not found if the program has no PDF export.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public CompletionStage<Result> downloadAllApplicantsPdfPacket(long programId) {
+    Optional<PdfExportConfig> pdfConfig;
+    try {
+      pdfConfig = pdfConfig(programService.getProgramDefinition(programId));
+    } catch (ProgramNotFoundException e) {
+      return CompletableFuture.completedFuture(notFound(e.toString()));
+    }
+    if (pdfConfig.isEmpty()) {
+      return CompletableFuture.completedFuture(notFound(noPdfExport(programId)));
+    }
+
+    return pdfPacketExporter
+        .exportToFile(pdfConfig.get())
+        .thenApply(
+            packet -> {
+              Source<ByteString, ?> content =
+                  FileIO.fromPath(packet)
+                      .watchTermination(
+                          (ioResult, done) ->
+                              done.whenComplete(
+                                  (ignored, e) -> PdfPacketExporter.deleteQuietly(packet)));
+              return ok().streamed(content, Optional.of(packet.toFile().length()), PDF)
+                  .withHeader(HeaderNames.CONTENT_DISPOSITION, attachment(programId, "pdf"));
+            });
+  }
+
+  /**
+   * Builds a packet as for {@link #downloadAllApplicantsPdfPacket} and keeps it in file storage
+   * instead of sending it. Responds with the id of the stored file.
+   */
+  @Secure(authorizers = Authorizers.Labels.UAT_ADMIN)
+  public CompletionStage<Result> storeAllApplicantsPdfPacket(long programId) {
+    Optional<PdfExportConfig> pdfConfig;
+    try {
+      pdfConfig = pdfConfig(programService.getProgramDefinition(programId));
+    } catch (ProgramNotFoundException e) {
+      return CompletableFuture.completedFuture(notFound(e.toString()));
+    }
+    if (pdfConfig.isEmpty()) {
+      return CompletableFuture.completedFuture(notFound(noPdfExport(programId)));
+    }
+
+    String name =
+        String.format("all-applicants-program-%d-packet-%s.pdf", programId, UUID.randomUUID());
+    return pdfPacketExporter
+        .exportToStoredFile(pdfConfig.get(), name)
+        .thenApply(fileId -> ok(String.valueOf(fileId)));
+  }
+
+  /** The PDF configuration of the first of the program's PDF export definitions, if any. */
+  private static Optional<PdfExportConfig> pdfConfig(ProgramDefinition program) {
+    return program.exportDefinitions().stream()
+        .filter(exportDefinition -> exportDefinition.engine() == ExportEngine.PDF)
+        .map(ExportDefinition::pdfConfig)
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+  private static String noPdfExport(long programId) {
+    return String.format("Program %d has no PDF export.", programId);
+  }
+
+  private static Result csvResult(long programId, Source<ByteString, ?> csv) {
+    return ok().chunked(csv)
+        .as("text/csv; charset=utf-8")
+        .withHeader(HeaderNames.CONTENT_DISPOSITION, attachment(programId, "csv"));
+  }
+
+  /** The first of the program's export definitions that has a CSV configuration, if any. */
+  private static Optional<ExportDefinition> csvExportDefinition(ProgramDefinition program) {
+    return program.exportDefinitions().stream()
+        .filter(
+            exportDefinition ->
+                exportDefinition.engine() == ExportEngine.CSV
+                    || exportDefinition.engine() == ExportEngine.SQL_CSV)
+        .filter(exportDefinition -> exportDefinition.csvConfig().isPresent())
+        .findFirst();
+  }
+
+  /**
+   * The CSV configuration of the program's export definition, or if it has none, a column for each
+   * scalar of the program's questions, headed by its path.
+   */
+  private static CsvExportConfig csvConfig(
+      ProgramDefinition program, Optional<ExportDefinition> definition) {
+    if (definition.isPresent()) {
+      return definition.get().csvConfig().get();
+    }
+    CsvExportConfig.Builder config = CsvExportConfig.builder();
+    for (Path path : program.scalarTypes().keySet()) {
+      config.addColumn(Column.builder().setHeader(path.path()).setJsonPath(path.path()).build());
+    }
+    return config.build();
+  }
+
+  private static String attachment(long programId, String extension) {
+    return String.format(
+        "attachment; filename=\"all-applicants-program-%d.%s\"", programId, extension);
+  }
+}
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.Config;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
@@ -15,7 +16,9 @@ import play.data.DynamicForm;
 import play.data.FormFactory;
 import play.i18n.MessagesApi;
 import play.libs.concurrent.HttpExecutionContext;
+import play.mvc.Call;
 import play.mvc.Controller;
+import play.mvc.Http.HeaderNames;
 import play.mvc.Http.Request;
 import play.mvc.Result;
 import services.applicant.ApplicantService;
@@ -27,12 +30,14 @@ import views.applicant.ApplicantProgramBlockEditView;
 
 public final class ApplicantProgramBlocksController extends Controller {
   private static final ImmutableSet<String> STRIPPED_FORM_FIELDS = ImmutableSet.of("csrfToken");
+  private static final String RENDER_NEXT_BLOCK_INLINE = "applicant.render_next_block_inline";
 
   private final ApplicantService applicantService;
   private final MessagesApi messagesApi;
   private final HttpExecutionContext httpExecutionContext;
   private final ApplicantProgramBlockEditView editView;
   private final FormFactory formFactory;
+  private final boolean renderNextBlockInline;
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -42,12 +47,16 @@ public final class ApplicantProgramBlocksController extends Controller {
       MessagesApi messagesApi,
       HttpExecutionContext httpExecutionContext,
       ApplicantProgramBlockEditView editView,
-      FormFactory formFactory) {
+      FormFactory formFactory,
+      Config config) {
     this.applicantService = checkNotNull(applicantService);
     this.messagesApi = checkNotNull(messagesApi);
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
     this.editView = checkNotNull(editView);
     this.formFactory = checkNotNull(formFactory);
+    this.renderNextBlockInline =
+        checkNotNull(config).hasPath(RENDER_NEXT_BLOCK_INLINE)
+            && config.getBoolean(RENDER_NEXT_BLOCK_INLINE);
   }
 
   public CompletionStage<Result> edit(
@@ -153,13 +162,30 @@ public final class ApplicantProgramBlocksController extends Controller {
     // TODO(https://github.com/seattle-uat/universal-application-tool/issues/256): Redirect to
     //  review page when it is available.
     Result reviewPageRedirect = redirect(routes.ApplicantProgramsController.index(applicantId));
-    Optional<Long> nextBlockIdMaybe =
-        roApplicantProgramService.getBlockAfter(blockId).map(Block::getId);
-    return nextBlockIdMaybe.isEmpty()
-        ? reviewPageRedirect
-        : redirect(
-            routes.ApplicantProgramBlocksController.edit(
-                applicantId, programId, nextBlockIdMaybe.get()));
+    Optional<Block> nextBlockMaybe = roApplicantProgramService.getBlockAfter(blockId);
+    if (nextBlockMaybe.isEmpty()) {
+      return reviewPageRedirect;
+    }
+    Call nextBlockEdit =
+        routes.ApplicantProgramBlocksController.edit(
+            applicantId, programId, nextBlockMaybe.get().getId());
+    if (!renderNextBlockInline) {
+      return redirect(nextBlockEdit);
+    }
+
+    // Render the next block now, from the data just saved, rather than having the browser
+    // request it. The page is served as if from the next block's URL.
+    return ok(
+            editView.render(
+                ApplicantProgramBlockEditView.Params.builder()
+                    .setRequest(request)
+                    .setMessages(messagesApi.preferred(request))
+                    .setApplicantId(applicantId)
+                    .setProgramId(programId)
+                    .setBlock(nextBlockMaybe.get())
+                    .setReplaceUrl(nextBlockEdit.url())
+                    .build()))
+        .withHeader(HeaderNames.CONTENT_LOCATION, nextBlockEdit.url());
   }
 
   private ImmutableMap<String, String> cleanForm(Map<String, String> formData) {
@@ -10,12 +10,16 @@ import io.ebean.Ebean;
 import io.ebean.EbeanServer;
 import java.util.Locale;
 import models.Program;
+import models.ProgramBlock;
+import models.ProgramBlockQuestion;
 import models.Question;
 import play.Environment;
 import play.db.ebean.EbeanConfig;
 import play.mvc.Controller;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.DataChange;
+import repository.DataVersions;
 import services.Path;
 import services.program.ProgramDefinition;
 import services.program.ProgramQuestionDefinition;
@@ -167,6 +171,9 @@ public class DatabaseSeedController extends Controller {
   }
 
   private void truncateTables() {
-    ebeanServer.truncate(Program.class, Question.class);
+    ebeanServer.truncate(
+        ProgramBlockQuestion.class, ProgramBlock.class, Program.class, Question.class);
+    DataChange.ALL.publish(ebeanServer);
+    DataVersions.allChanged();
   }
 }
@@ -1,8 +1,14 @@
 package export;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import models.Applicant;
@@ -12,38 +18,121 @@ import services.Path;
 import services.program.Column;
 
 public class CsvExporter implements Exporter {
+  /** The most rows {@link #stream} joins into one chunk while the client is still reading. */
+  private static final int MAX_ROWS_PER_CHUNK = 500;
+
   private boolean wroteHeaders;
   private ImmutableList<Column> columns;
+  /** The path of each column, parsed once rather than for every row. */
+  private final ImmutableList<Path> paths;
 
   public CsvExporter(List<Column> columns) {
     this.wroteHeaders = false;
     this.columns = ImmutableList.copyOf(columns);
+    this.paths =
+        this.columns.stream()
+            .map(column -> Path.create(column.jsonPath()))
+            .collect(ImmutableList.toImmutableList());
   }
 
   private void writeHeadersOnFirstExport(CSVPrinter printer) throws IOException {
     if (!wroteHeaders) {
-      for (Column column : columns) {
-        printer.print(column.header());
-      }
-      printer.println();
+      printHeaders(printer);
       wroteHeaders = true;
     }
   }
 
+  private void printHeaders(CSVPrinter printer) throws IOException {
+    for (Column column : columns) {
+      printer.print(column.header());
+    }
+    printer.println();
+  }
+
+  private void printRow(Applicant applicant, CSVPrinter printer) throws IOException {
+    for (Path path : paths) {
+      Optional<String> value = applicant.getApplicantData().readString(path);
+      printer.print(value.orElse("COLUMN_EMPTY"));
+    }
+    printer.println();
+  }
+
   /**
-   * The CSV exporter will write the headers on first call to export(). It does not store the writer
+   * The CSV exporter will write the headers on first call to export(). It does not store the stream
    * between calls. Since it is intended for many applicants, this function is intended to be called
    * several times.
    */
   @Override
-  public void export(Applicant applicant, Writer writer) throws IOException {
+  public void export(Applicant applicant, OutputStream output) throws IOException {
+    Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
     CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withFirstRecordAsHeader());
     this.writeHeadersOnFirstExport(printer);
-    for (Column column : this.columns) {
-      Optional<String> value =
-          applicant.getApplicantData().readString(Path.create(column.jsonPath()));
-      printer.print(value.orElse("COLUMN_EMPTY"));
+    printRow(applicant, printer);
+    printer.flush();
+  }
+
+  /**
+   * Streams the headers followed by one row per applicant, encoded as UTF-8. Rows are formatted as
+   * applicants arrive, by a single printer per materialization, so memory use depends only on how
+   * {@code applicants} is loaded. Rows that are ready while the client is still reading are sent
+   * together, rather than one chunk each.
+   *
+   * <p>Does not affect, and is not affected by, calls to {@link #export}.
+   */
+  public Source<ByteString, NotUsed> stream(Source<Applicant, NotUsed> applicants) {
+    return Source.lazySource(
+            () -> {
+              RowBuffer rows = new RowBuffer();
+              return Source.single(rows.format(this::printHeaders))
+                  .concat(
+                      applicants.map(
+                          applicant -> rows.format(printer -> printRow(applicant, printer))));
+            })
+        .mapMaterializedValue(unused -> NotUsed.getInstance())
+        .batch(MAX_ROWS_PER_CHUNK, row -> row, ByteString::concat);
+  }
+
+  /** Formats the headers as a row, encoded as UTF-8. */
+  public ByteString formatHeaders() throws IOException {
+    return format(this::printHeaders);
+  }
+
+  /**
+   * Formats a row for each applicant, in order, without headers, encoded as UTF-8. Like {@link
+   * #stream}, this is independent of {@link #export}, so it may be called from several threads at
+   * once.
+   */
+  public ByteString formatRows(List<Applicant> applicants) throws IOException {
+    return format(
+        printer -> {
+          for (Applicant applicant : applicants) {
+            printRow(applicant, printer);
+          }
+        });
+  }
+
+  private interface PrinterAction {
+    void print(CSVPrinter printer) throws IOException;
+  }
+
+  private static ByteString format(PrinterAction action) throws IOException {
+    return new RowBuffer().format(action);
+  }
+
+  /** A printer over a buffer that is emptied after each use, so it can format many rows. */
+  private static final class RowBuffer {
+    private final StringBuilder text = new StringBuilder();
+    private final CSVPrinter printer;
+
+    RowBuffer() throws IOException {
+      printer = new CSVPrinter(text, CSVFormat.DEFAULT);
+    }
+
+    ByteString format(PrinterAction action) throws IOException {
+      action.print(printer);
+      ByteString bytes = ByteString.fromString(text.toString(), StandardCharsets.UTF_8);
+      text.setLength(0);
+      return bytes;
     }
-    printer.println();
   }
 }
@@ -1,10 +1,13 @@
 package export;
 
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
 import models.Applicant;
 
 public interface Exporter {
-  /** Write the data for the specified applicant to the specified writer. */
-  void export(Applicant applicant, Writer writer) throws IOException;
+  /**
+   * Write the data for the specified applicant to the specified stream, without closing it. Text
+   * formats are encoded as UTF-8.
+   */
+  void export(Applicant applicant, OutputStream output) throws IOException;
 }
@@ -1,23 +1,55 @@
 package export;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import models.Program;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import services.program.ExportDefinition;
+import services.program.PdfExportConfig;
 
+/**
+ * Creates the exporters for a program. A singleton, so that PDF exporters, which are safe to share,
+ * are shared by every export of the same form.
+ */
+@Singleton
 public class ExporterFactory {
+  private static final Logger log = LoggerFactory.getLogger(ExporterFactory.class);
+
+  /**
+   * PDF exporters by config, so exports of the same form reuse its downloaded and parsed copies
+   * rather than making their own. Entries expire ten minutes after they are created, however often
+   * they are used, so that a changed base document is picked up.
+   */
+  private final Cache<PdfExportConfig, PdfExporter> pdfExporters =
+      CacheBuilder.newBuilder()
+          .maximumSize(100)
+          .expireAfterWrite(10, TimeUnit.MINUTES)
+          .<PdfExportConfig, PdfExporter>removalListener(ExporterFactory::closePdfExporter)
+          .build();
+
+  @Inject
+  public ExporterFactory() {}
 
   public ImmutableList<Exporter> createExporters(Program program) throws IOException {
     ImmutableList.Builder<Exporter> list = new ImmutableList.Builder<Exporter>();
     for (ExportDefinition exportDefinition : program.getProgramDefinition().exportDefinitions()) {
       switch (exportDefinition.engine()) {
         case PDF:
-          list.add(
-              new PdfExporter(
-                  exportDefinition.pdfConfig().orElseThrow().baseDocument(),
-                  exportDefinition.pdfConfig().orElseThrow().mappings()));
+          list.add(pdfExporter(exportDefinition.pdfConfig().orElseThrow()));
           break;
         case CSV:
+        case SQL_CSV:
+          // A single applicant is exported the same way by either engine.
           list.add(new CsvExporter(exportDefinition.csvConfig().orElseThrow().columns()));
           break;
         default:
@@ -27,4 +59,23 @@ public class ExporterFactory {
     }
     return list.build();
   }
+
+  /** Returns the shared exporter for the config, creating it if there is none. */
+  public PdfExporter pdfExporter(PdfExportConfig config) throws IOException {
+    try {
+      return pdfExporters.get(
+          config, () -> new PdfExporter(config.baseDocument(), config.mappings()));
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      throw new UncheckedExecutionException(e.getCause());
+    }
+  }
+
+  private static void closePdfExporter(RemovalNotification<PdfExportConfig, PdfExporter> removal) {
+    try {
+      removal.getValue().close();
+    } catch (IOException e) {
+      log.warn("failed to close PDF exporter", e);
+    }
+  }
 }
@@ -0,0 +1,150 @@
+package export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.google.common.collect.ImmutableList;
+import com.typesafe.config.Config;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.inject.Inject;
+import models.Applicant;
+import services.applicant.ApplicantService;
+import services.program.Column;
+import services.program.PdfExportConfig;
+
+/**
+ * Exports every applicant using all the cores of the server.
+ *
+ * <p>The applicant ids are split into partitions, and each partition is loaded, then exported on
+ * the {@link ExportExecutionContext} fork-join pool, independently of the others. At most {@code
+ * export.parallel.max_in_flight_partitions} partitions are loading, exporting or waiting to be
+ * sent at once, which bounds memory use. Partitions are sent in id order, each as soon as it and
+ * every partition before it are done.
+ */
+public final class ParallelExporter {
+  private final ApplicantService applicantService;
+  private final ExportExecutionContext exportExecutionContext;
+  private final ExporterFactory exporterFactory;
+  private final int csvPartitionSize;
+  private final int pdfPartitionSize;
+  private final int maxInFlightPartitions;
+
+  @Inject
+  public ParallelExporter(
+      ApplicantService applicantService,
+      ExportExecutionContext exportExecutionContext,
+      ExporterFactory exporterFactory,
+      Config config) {
+    this.applicantService = checkNotNull(applicantService);
+    this.exportExecutionContext = checkNotNull(exportExecutionContext);
+    this.exporterFactory = checkNotNull(exporterFactory);
+    this.csvPartitionSize = checkNotNull(config).getInt("export.parallel.csv_partition_size");
+    this.pdfPartitionSize = config.getInt("export.parallel.pdf_partition_size");
+    this.maxInFlightPartitions =
+        config.hasPath("export.parallel.max_in_flight_partitions")
+            ? config.getInt("export.parallel.max_in_flight_partitions")
+            : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Streams the same CSV as {@link CsvExporter#stream}: the headers, then a row for every
+   * applicant, in id order. Each partition's rows are formatted into a single shard.
+   */
+  public Source<ByteString, NotUsed> exportCsv(ImmutableList<Column> columns) {
+    CsvExporter exporter = new CsvExporter(columns);
+    return Source.lazySingle(exporter::formatHeaders)
+        .concat(exportPartitions(csvPartitionSize, exporter::formatRows))
+        .filter(shard -> !shard.isEmpty());
+  }
+
+  /**
+   * Streams a ZIP archive holding the filled-in PDF of every applicant, named {@code
+   * applicant-<id>.pdf}, in id order. Partitions share the config's {@link PdfExporter}, which
+   * fills in a copy of the form per core at once.
+   */
+  public Source<ByteString, NotUsed> exportPdfZip(PdfExportConfig config) {
+    Source<ImmutableList<Pair<String, byte[]>>, NotUsed> partitions =
+        exportPartitions(pdfPartitionSize, applicants -> renderPdfs(config, applicants));
+    return Source.lazySource(
+            () -> {
+              ZipChunker zip = new ZipChunker();
+              return partitions.map(zip::add).concat(Source.lazySingle(zip::finish));
+            })
+        .mapMaterializedValue(unused -> NotUsed.getInstance())
+        .filter(chunk -> !chunk.isEmpty());
+  }
+
+  private interface PartitionExport<T> {
+    T export(ImmutableList<Applicant> applicants) throws IOException;
+  }
+
+  private <T> Source<T, NotUsed> exportPartitions(int partitionSize, PartitionExport<T> export) {
+    return applicantService
+        .partitionApplicantIds(partitionSize)
+        .mapAsync(
+            maxInFlightPartitions,
+            ids ->
+                applicantService
+                    .listApplicantsInIdRange(ids.first(), ids.second())
+                    .thenApplyAsync(
+                        applicants -> {
+                          try {
+                            return export.export(applicants);
+                          } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                          }
+                        },
+                        exportExecutionContext));
+  }
+
+  private ImmutableList<Pair<String, byte[]>> renderPdfs(
+      PdfExportConfig config, ImmutableList<Applicant> applicants) throws IOException {
+    if (applicants.isEmpty()) {
+      return ImmutableList.of();
+    }
+    PdfExporter exporter = exporterFactory.pdfExporter(config);
+    ImmutableList.Builder<Pair<String, byte[]>> pdfs = ImmutableList.builder();
+    for (Applicant applicant : applicants) {
+      ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+      exporter.export(applicant, pdf);
+      pdfs.add(Pair.create(String.format("applicant-%d.pdf", applicant.id), pdf.toByteArray()));
+    }
+    return pdfs.build();
+  }
+
+  /**
+   * Writes a ZIP archive a batch of entries at a time, returning the bytes written for each batch.
+   * Only the current batch is held in memory.
+   */
+  private static final class ZipChunker {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final ZipOutputStream zip = new ZipOutputStream(buffer);
+
+    ByteString add(ImmutableList<Pair<String, byte[]>> entries) throws IOException {
+      for (Pair<String, byte[]> entry : entries) {
+        zip.putNextEntry(new ZipEntry(entry.first()));
+        zip.write(entry.second());
+        zip.closeEntry();
+      }
+      return drain();
+    }
+
+    ByteString finish() throws IOException {
+      zip.finish();
+      return drain();
+    }
+
+    private ByteString drain() {
+      ByteString bytes = ByteString.fromArray(buffer.toByteArray());
+      buffer.reset();
+      return bytes;
+    }
+  }
+}
@@ -1,46 +1,159 @@
 package export;
 
 import com.google.common.collect.ImmutableMap;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
 import models.Applicant;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDField;
 import services.Path;
 
-public class PdfExporter implements Exporter {
-  private PDDocument baseDocument;
-  private ImmutableMap<String, String> fieldToValue;
+/**
+ * Fills in a PDF form for an applicant. Safe to share between threads.
+ *
+ * <p>The base document is downloaded once. Each export borrows a parsed copy of it from a bounded
+ * pool, parsing a new copy from the downloaded bytes only while fewer than the pool size exist,
+ * and otherwise waiting for one to be returned. Every mapped field is set on every export, to the
+ * applicant's value or else back to the base document's, so values never carry over from one
+ * applicant to the next.
+ */
+public class PdfExporter implements Exporter, Closeable {
+  private final byte[] template;
+  private final ImmutableMap<String, Path> fieldToPath;
+  /** The base document's value of each mapped field that it has. */
+  private final ImmutableMap<String, String> templateValues;
 
+  private final Semaphore permits;
+  private final BlockingQueue<PDDocument> idleDocuments;
+  private volatile boolean closed = false;
+
+  /** Creates an exporter that fills in up to one form per core at once. */
   public PdfExporter(URI documentUrl, Map<String, String> fieldToValue) throws IOException {
-    baseDocument = PDDocument.load(documentUrl.toURL().openStream());
-    this.fieldToValue = ImmutableMap.copyOf(fieldToValue);
+    this(documentUrl, fieldToValue, Runtime.getRuntime().availableProcessors());
+  }
+
+  public PdfExporter(URI documentUrl, Map<String, String> fieldToValue, int poolSize)
+      throws IOException {
+    try (InputStream document = documentUrl.toURL().openStream()) {
+      template = document.readAllBytes();
+    }
+    ImmutableMap.Builder<String, Path> paths = ImmutableMap.builder();
+    for (Map.Entry<String, String> fToV : fieldToValue.entrySet()) {
+      paths.put(fToV.getKey(), Path.create(fToV.getValue()));
+    }
+    this.fieldToPath = paths.build();
+    this.permits = new Semaphore(poolSize);
+    this.idleDocuments = new ArrayBlockingQueue<>(poolSize);
+
+    // Parse the first copy up front, so that a bad base document fails here.
+    PDDocument document = PDDocument.load(template);
+    PDAcroForm form = document.getDocumentCatalog().getAcroForm();
+    ImmutableMap.Builder<String, String> values = ImmutableMap.builder();
+    for (String fieldName : fieldToPath.keySet()) {
+      PDField field = form.getField(fieldName);
+      if (field != null) {
+        values.put(fieldName, field.getValueAsString());
+      }
+    }
+    this.templateValues = values.build();
+    idleDocuments.add(document);
   }
 
   /**
-   * Write a PDF containing the filled-in base form to the provided writer. For the PDF to be valid,
-   * the writer should contain no previous writes and should be closed immediately after this call.
-   * This function marshals the output document in memory due to restrictions of the PDDocument
-   * class.
+   * Writes a PDF containing the base form, filled in for the applicant, to the stream, which is not
+   * closed. Waits if every copy of the form is in use.
    */
   @Override
-  public void export(Applicant applicant, Writer writer) throws IOException {
-    PDAcroForm form = baseDocument.getDocumentCatalog().getAcroForm();
-    for (Map.Entry<String, String> fToV : fieldToValue.entrySet()) {
-      Optional<String> applicantValue =
-          applicant.getApplicantData().readString(Path.create(fToV.getValue()));
-      if (applicantValue.isPresent()) {
-        form.getField(fToV.getKey()).setValue(applicantValue.get());
+  public void export(Applicant applicant, OutputStream output) throws IOException {
+    PDDocument document = borrowDocument();
+    try {
+      PDAcroForm form = document.getDocumentCatalog().getAcroForm();
+      for (Map.Entry<String, Path> fToP : fieldToPath.entrySet()) {
+        String fieldName = fToP.getKey();
+        String value =
+            applicant
+                .getApplicantData()
+                .readString(fToP.getValue())
+                .orElse(templateValues.get(fieldName));
+        if (value != null) {
+          form.getField(fieldName).setValue(value);
+        }
+      }
+      // PDDocument#save closes the stream it writes to.
+      document.save(new UnclosedOutputStream(output));
+    } finally {
+      returnDocument(document);
+    }
+  }
+
+  private PDDocument borrowDocument() throws IOException {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a copy of the PDF form.");
+    }
+    PDDocument document = idleDocuments.poll();
+    if (document != null) {
+      return document;
+    }
+    try {
+      return PDDocument.load(template);
+    } catch (IOException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void returnDocument(PDDocument document) throws IOException {
+    try {
+      idleDocuments.add(document);
+      if (closed) {
+        closeIdleDocuments();
       }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** Releases the copies of the form. Copies in use are released as their exports finish. */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    closeIdleDocuments();
+  }
+
+  private void closeIdleDocuments() throws IOException {
+    PDDocument document;
+    while ((document = idleDocuments.poll()) != null) {
+      document.close();
+    }
+  }
+
+  /** Passes writes through to a stream, but only flushes it when closed. */
+  private static final class UnclosedOutputStream extends FilterOutputStream {
+    UnclosedOutputStream(OutputStream output) {
+      super(output);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
     }
-    ByteArrayOutputStream inMemoryFile = new ByteArrayOutputStream();
-    baseDocument.save(inMemoryFile);
-    inMemoryFile.close();
-    writer.write(inMemoryFile.toString(StandardCharsets.UTF_8));
   }
 }
@@ -0,0 +1,126 @@
+package export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+import akka.stream.Materializer;
+import akka.stream.javadsl.StreamConverters;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+import javax.inject.Inject;
+import models.Applicant;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import repository.StoredFileRepository;
+import services.applicant.ApplicantService;
+import services.program.PdfExportConfig;
+
+/**
+ * Builds a packet: a single PDF holding every applicant's filled-in form, one after another, in id
+ * order.
+ *
+ * <p>Memory use does not grow with the size of the packet. Applicants are loaded a page at a time,
+ * and each form is filled in, flattened and appended on its own, then released. The packet keeps
+ * at most {@link #MAX_MAIN_MEMORY_BYTES} of its content in memory and buffers the rest in a
+ * temporary file, and is saved to a temporary file, which is then sent or stored.
+ */
+public final class PdfPacketExporter {
+  /** The most packet content held in memory while it is built, before buffering to disk. */
+  private static final long MAX_MAIN_MEMORY_BYTES = 16L * 1024 * 1024;
+
+  private final ApplicantService applicantService;
+  private final StoredFileRepository storedFileRepository;
+  private final ExportExecutionContext exportExecutionContext;
+  private final ExporterFactory exporterFactory;
+  private final Materializer materializer;
+
+  @Inject
+  public PdfPacketExporter(
+      ApplicantService applicantService,
+      StoredFileRepository storedFileRepository,
+      ExportExecutionContext exportExecutionContext,
+      ExporterFactory exporterFactory,
+      Materializer materializer) {
+    this.applicantService = checkNotNull(applicantService);
+    this.storedFileRepository = checkNotNull(storedFileRepository);
+    this.exportExecutionContext = checkNotNull(exportExecutionContext);
+    this.exporterFactory = checkNotNull(exporterFactory);
+    this.materializer = checkNotNull(materializer);
+  }
+
+  /**
+   * Builds the packet of every applicant into a temporary file, which the caller must delete once
+   * it is sent.
+   */
+  public CompletionStage<Path> exportToFile(PdfExportConfig config) {
+    return supplyAsync(
+        () -> {
+          try (Stream<Applicant> applicants =
+              applicantService
+                  .streamApplicants()
+                  .runWith(StreamConverters.asJavaStream(), materializer)) {
+            return writePacket(config, applicants.iterator());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        },
+        exportExecutionContext);
+  }
+
+  /**
+   * Builds the packet of every applicant and stores it with {@link StoredFileRepository} under the
+   * given name, uploading it from disk. Returns the id of the stored file.
+   */
+  public CompletionStage<Long> exportToStoredFile(PdfExportConfig config, String name) {
+    return exportToFile(config)
+        .thenCompose(
+            packet ->
+                storedFileRepository
+                    .insertFromFile(name, packet)
+                    .whenComplete((id, e) -> deleteQuietly(packet)));
+  }
+
+  private Path writePacket(PdfExportConfig config, Iterator<Applicant> applicants)
+      throws IOException {
+    PdfExporter exporter = exporterFactory.pdfExporter(config);
+    PDFMergerUtility merger = new PDFMergerUtility();
+    Path packetFile = Files.createTempFile("pdf-packet", ".pdf");
+    try (PDDocument packet = new PDDocument(MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY_BYTES))) {
+      while (applicants.hasNext()) {
+        ByteArrayOutputStream form = new ByteArrayOutputStream();
+        exporter.export(applicants.next(), form);
+        try (PDDocument filledForm = PDDocument.load(form.toByteArray())) {
+          // Flattening draws the values onto the pages, so the packet does not collect every
+          // applicant's form fields.
+          PDAcroForm acroForm = filledForm.getDocumentCatalog().getAcroForm();
+          if (acroForm != null) {
+            acroForm.flatten();
+          }
+          merger.appendDocument(packet, filledForm);
+        }
+      }
+      packet.save(packetFile.toFile());
+      return packetFile;
+    } catch (IOException | RuntimeException e) {
+      deleteQuietly(packetFile);
+      throw e;
+    }
+  }
+
+  /** Deletes the file if it exists, ignoring failures, since it is only a temporary file. */
+  public static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // The temporary directory is cleaned up by the system.
+    }
+  }
+}
@@ -1,12 +1,17 @@
 package models;
 
 import io.ebean.annotation.DbJson;
+import java.time.Instant;
 import java.util.Locale;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import play.data.validation.Constraints;
 import services.applicant.ApplicantData;
 
@@ -19,6 +24,19 @@ public class Applicant extends BaseModel {
 
   private String preferredLocale;
 
+  /** Mirrors the created time in the applicant data, so it can be queried without parsing JSON. */
+  private Instant createdTime;
+
+  /**
+   * Advanced by a database trigger on every write, including the partial updates made by {@code
+   * ApplicantRepository}, so cached copies of the applicant can be checked against the database.
+   * Values written from here are ignored.
+   */
+  private long version = 1L;
+
+  /** Whether this applicant has a row yet, i.e. whether its next write is an update. */
+  @Transient private boolean persisted = false;
+
   @Constraints.Required @DbJson private String object;
   @ManyToOne private Account account;
 
@@ -45,11 +63,46 @@ public class Applicant extends BaseModel {
     return applicantData;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Records that this applicant has been written once more, as the database will have advanced
+   * the stored version. If another write got in first the result is behind the stored version,
+   * which only makes a cached copy miss.
+   */
+  public void incrementVersion() {
+    version++;
+  }
+
   @PrePersist
   @PreUpdate
   public void synchronizeObject() {
     this.preferredLocale = getApplicantData().preferredLocale().toLanguageTag();
     this.object = objectAsJsonString();
+    if (getApplicantData().hasCreatedTime()) {
+      this.createdTime = getApplicantData().getCreatedTime();
+    }
+  }
+
+  @PostLoad
+  public void markPersisted() {
+    persisted = true;
+  }
+
+  /**
+   * Clears the changes that were just written and, after an update, advances the version as the
+   * database trigger did. An insert stores the initial version as it is.
+   */
+  @PostPersist
+  @PostUpdate
+  public void clearApplicantDataChanges() {
+    getApplicantData().clearDirty();
+    if (persisted) {
+      incrementVersion();
+    }
+    persisted = true;
   }
 
   private String objectAsJsonString() {
@@ -5,11 +5,15 @@ import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import io.ebean.config.ServerConfig;
 import io.ebean.event.ServerConfigStartup;
+import repository.DataVersionsListener;
 
 /**
  * Provides a Jackson {@link ObjectMapper} that understands how to (de)serialize Guava types and
  * Java 8 Optionals. Note that this is necessary because Ebean uses a different ObjectMapper than
  * the one provided by the Play framework.
+ *
+ * <p>Also registers the {@link DataVersionsListener} that lets caches of question and program data
+ * know when they are stale.
  */
 public class EbeanServerConfigStartup implements ServerConfigStartup {
 
@@ -18,5 +22,6 @@ public class EbeanServerConfigStartup implements ServerConfigStartup {
     ObjectMapper mapper =
         new ObjectMapper().registerModule(new GuavaModule()).registerModule(new Jdk8Module());
     serverConfig.setObjectMapper(mapper);
+    serverConfig.add(new DataVersionsListener());
   }
 }
@@ -1,20 +1,23 @@
 package models;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import com.google.common.collect.ImmutableList;
-import io.ebean.annotation.DbJson;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.CascadeType;
 import javax.persistence.Entity;
-import javax.persistence.PostLoad;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
 import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
-import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import play.data.validation.Constraints;
 import services.program.BlockDefinition;
 import services.program.ProgramDefinition;
 
-/** The ebeans mapped class for the program object. */
+/**
+ * The ebeans mapped class for the program object. Its blocks are stored as {@link ProgramBlock}
+ * rows rather than as part of the program row.
+ */
 @Entity
 @Table(name = "programs")
 public class Program extends BaseModel {
@@ -25,10 +28,28 @@ public class Program extends BaseModel {
 
   private @Constraints.Required String description;
 
-  private @Constraints.Required @DbJson ImmutableList<BlockDefinition> blockDefinitions;
+  @OneToMany(mappedBy = "program", cascade = CascadeType.ALL)
+  @OrderBy("position")
+  private List<ProgramBlock> blocks;
 
+  /**
+   * Returns the {@link ProgramDefinition} this program was constructed from, or for a loaded
+   * program, builds it from the column values and block rows the first time it is asked for.
+   */
   public ProgramDefinition getProgramDefinition() {
-    return checkNotNull(this.programDefinition);
+    if (this.programDefinition == null) {
+      this.programDefinition =
+          ProgramDefinition.builder()
+              .setId(this.id)
+              .setName(this.name)
+              .setDescription(this.description)
+              .setBlockDefinitions(
+                  this.blocks.stream()
+                      .map(ProgramBlock::toBlockDefinition)
+                      .collect(ImmutableList.toImmutableList()))
+              .build();
+    }
+    return this.programDefinition;
   }
 
   public Program(ProgramDefinition definition) {
@@ -36,7 +57,7 @@ public class Program extends BaseModel {
     this.id = definition.id();
     this.name = definition.name();
     this.description = definition.description();
-    this.blockDefinitions = definition.blockDefinitions();
+    this.blocks = toBlocks(definition.blockDefinitions());
   }
 
   /**
@@ -53,29 +74,23 @@ public class Program extends BaseModel {
             .setDescription("")
             .setProgramQuestionDefinitions(ImmutableList.of())
             .build();
-    this.blockDefinitions = ImmutableList.of(emptyBlock);
+    this.blocks = toBlocks(ImmutableList.of(emptyBlock));
   }
 
-  /** Populates column values from {@link ProgramDefinition} */
-  @PreUpdate
-  public void persistChangesToProgramDefinition() {
-    this.id = this.programDefinition.id();
-    this.name = this.programDefinition.name();
-    this.description = this.programDefinition.description();
-    this.blockDefinitions = this.programDefinition.blockDefinitions();
+  private List<ProgramBlock> toBlocks(ImmutableList<BlockDefinition> blockDefinitions) {
+    List<ProgramBlock> blocks = new ArrayList<>();
+    for (int i = 0; i < blockDefinitions.size(); i++) {
+      blocks.add(new ProgramBlock(this, i, blockDefinitions.get(i)));
+    }
+    return blocks;
   }
 
-  /** Populates {@link ProgramDefinition} from column values. */
-  @PostLoad
+  /** Keeps the {@link ProgramDefinition} id in step with the id assigned on insert. */
   @PostPersist
   @PostUpdate
-  public void loadProgramDefinition() {
-    this.programDefinition =
-        ProgramDefinition.builder()
-            .setId(this.id)
-            .setName(this.name)
-            .setDescription(this.description)
-            .setBlockDefinitions(this.blockDefinitions)
-            .build();
+  public void syncProgramDefinitionId() {
+    if (this.programDefinition != null && this.programDefinition.id() != this.id) {
+      this.programDefinition = this.programDefinition.toBuilder().setId(this.id).build();
+    }
   }
 }
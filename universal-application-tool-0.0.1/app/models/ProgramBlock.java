@@ -0,0 +1,82 @@
+package models;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.CascadeType;
+import javax.persistence.Entity;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.Table;
+import services.program.BlockDefinition;
+import services.program.Predicate;
+import services.program.ProgramQuestionDefinition;
+
+/**
+ * The ebeans mapped class for one block of a {@link Program}. Each block is its own row, so a
+ * change to one block does not rewrite the rest of the program.
+ */
+@Entity
+@Table(name = "program_blocks")
+public class ProgramBlock extends BaseModel {
+  private static final long serialVersionUID = 1L;
+
+  @ManyToOne private Program program;
+
+  /** The {@link BlockDefinition} id, which is unique within the program. */
+  private long blockId;
+
+  /** The order of the block within the program. */
+  private int position;
+
+  private String name;
+
+  private String description;
+
+  private String hidePredicate;
+
+  private String optionalPredicate;
+
+  @OneToMany(mappedBy = "programBlock", cascade = CascadeType.ALL)
+  @OrderBy("position")
+  private List<ProgramBlockQuestion> questions;
+
+  ProgramBlock(Program program, int position, BlockDefinition blockDefinition) {
+    this.program = program;
+    this.blockId = blockDefinition.id();
+    this.position = position;
+    this.name = blockDefinition.name();
+    this.description = blockDefinition.description();
+    this.hidePredicate = blockDefinition.hidePredicate().map(Predicate::expression).orElse(null);
+    this.optionalPredicate =
+        blockDefinition.optionalPredicate().map(Predicate::expression).orElse(null);
+    this.questions = new ArrayList<>();
+    ImmutableList<ProgramQuestionDefinition> programQuestionDefinitions =
+        blockDefinition.programQuestionDefinitions();
+    for (int i = 0; i < programQuestionDefinitions.size(); i++) {
+      this.questions.add(
+          new ProgramBlockQuestion(this, i, programQuestionDefinitions.get(i).id()));
+    }
+  }
+
+  /**
+   * Builds the {@link BlockDefinition} for this block. Its questions only have ids; it is up to the
+   * {@link services.program.ProgramService} to populate the question definitions.
+   */
+  BlockDefinition toBlockDefinition() {
+    return BlockDefinition.builder()
+        .setId(blockId)
+        .setName(Strings.nullToEmpty(name))
+        .setDescription(Strings.nullToEmpty(description))
+        .setHidePredicate(Optional.ofNullable(hidePredicate).map(Predicate::create))
+        .setOptionalPredicate(Optional.ofNullable(optionalPredicate).map(Predicate::create))
+        .setProgramQuestionDefinitions(
+            questions.stream()
+                .map(question -> ProgramQuestionDefinition.create(question.getQuestionId()))
+                .collect(ImmutableList.toImmutableList()))
+        .build();
+  }
+}
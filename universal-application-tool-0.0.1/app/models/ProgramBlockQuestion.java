@@ -0,0 +1,29 @@
+package models;
+
+import javax.persistence.Entity;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/** The ebeans mapped class for a question's place in a {@link ProgramBlock}. */
+@Entity
+@Table(name = "program_block_questions")
+public class ProgramBlockQuestion extends BaseModel {
+  private static final long serialVersionUID = 1L;
+
+  @ManyToOne private ProgramBlock programBlock;
+
+  private long questionId;
+
+  /** The order of the question within the block. */
+  private int position;
+
+  ProgramBlockQuestion(ProgramBlock programBlock, int position, long questionId) {
+    this.programBlock = programBlock;
+    this.position = position;
+    this.questionId = questionId;
+  }
+
+  public long getQuestionId() {
+    return questionId;
+  }
+}
@@ -4,6 +4,7 @@ import com.google.inject.AbstractModule;
 import java.time.Clock;
 import java.time.ZoneId;
 import repository.AmazonS3Client;
+import repository.DataChangeSubscriber;
 import services.applicant.ApplicantService;
 import services.applicant.ApplicantServiceImpl;
 import services.program.ProgramService;
@@ -29,5 +30,6 @@ public class MainModule extends AbstractModule {
     bind(QuestionService.class).to(QuestionServiceImpl.class);
     bind(ApplicantService.class).to(ApplicantServiceImpl.class);
     bind(AmazonS3Client.class).asEagerSingleton();
+    bind(DataChangeSubscriber.class).asEagerSingleton();
   }
 }
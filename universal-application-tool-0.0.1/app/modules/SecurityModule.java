@@ -113,8 +113,11 @@ public class SecurityModule extends AbstractModule {
   @Provides
   @Singleton
   protected ProfileFactory provideProfileFactory(
-      Clock clock, DatabaseExecutionContext dbContext, HttpExecutionContext httpContext) {
-    return new ProfileFactory(clock, dbContext, httpContext);
+      Clock clock,
+      DatabaseExecutionContext dbContext,
+      HttpExecutionContext httpContext,
+      Provider<ApplicantRepository> applicantRepositoryProvider) {
+    return new ProfileFactory(clock, dbContext, httpContext, applicantRepositoryProvider);
   }
 
   @Provides
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.typesafe.config.Config;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -68,6 +69,19 @@ public class AmazonS3Client {
     }
   }
 
+  /** Uploads the file's content from disk, without reading it into memory. */
+  public void putObject(String key, Path file) {
+    ensureS3Client();
+
+    try {
+      PutObjectRequest putObjectRequest =
+          PutObjectRequest.builder().bucket(bucket).key(key).build();
+      s3.putObject(putObjectRequest, RequestBody.fromFile(file));
+    } catch (S3Exception e) {
+      throw new RuntimeException("S3 exception: " + e.getMessage());
+    }
+  }
+
   public byte[] getObject(String key) {
     ensureS3Client();
 
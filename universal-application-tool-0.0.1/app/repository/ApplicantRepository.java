@@ -1,20 +1,45 @@
 package repository;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
-import java.util.Comparator;
+import io.ebean.ExpressionList;
+import io.ebean.SqlRow;
+import io.ebean.SqlUpdate;
+import io.ebean.Transaction;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
-import models.Account;
 import models.Applicant;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
 import play.db.ebean.EbeanConfig;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.program.Column;
 
 public class ApplicantRepository {
+  /** The number of applicants {@link #streamApplicants()} loads per query. */
+  public static final int DEFAULT_PAGE_SIZE = 500;
 
   private final EbeanServer ebeanServer;
   private final DatabaseExecutionContext executionContext;
@@ -25,38 +50,260 @@ public class ApplicantRepository {
     this.executionContext = checkNotNull(executionContext);
   }
 
+  /**
+   * Loads every applicant into memory at once. Prefer {@link #streamApplicants()} for anything that
+   * may touch the whole table.
+   */
   public CompletionStage<Set<Applicant>> listApplicants() {
     return supplyAsync(() -> ebeanServer.find(Applicant.class).findSet(), executionContext);
   }
 
+  /** Streams every applicant, loading {@link #DEFAULT_PAGE_SIZE} at a time. */
+  public Source<Applicant, NotUsed> streamApplicants() {
+    return streamApplicants(DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Streams every applicant in id order. Applicants are loaded a page at a time using the last id
+   * seen as the keyset, so only one page is held in memory at once regardless of table size, and
+   * the next page is only loaded once downstream demands it.
+   */
+  public Source<Applicant, NotUsed> streamApplicants(int pageSize) {
+    checkArgument(pageSize > 0, "pageSize must be positive");
+    return Source.unfoldAsync(
+            0L,
+            (Long lastId) ->
+                supplyAsync(
+                    () -> {
+                      List<Applicant> page =
+                          ebeanServer
+                              .find(Applicant.class)
+                              .where()
+                              .gt("id", lastId)
+                              .orderBy("id")
+                              .setMaxRows(pageSize)
+                              .findList();
+                      if (page.isEmpty()) {
+                        return Optional.<Pair<Long, List<Applicant>>>empty();
+                      }
+                      return Optional.of(Pair.create(page.get(page.size() - 1).id, page));
+                    },
+                    executionContext))
+        .mapConcat(page -> page);
+  }
+
+  /**
+   * Splits the ids of the applicants table, from the first to the last, into consecutive ranges of
+   * {@code partitionSize} ids. Each range is emitted in order as the pair of its first and last
+   * id, for loading with {@link #listApplicantsInIdRange}. Ids are not contiguous, so a range may
+   * hold fewer applicants than its size, or none. Emits nothing if there are no applicants.
+   */
+  public Source<Pair<Long, Long>, NotUsed> partitionApplicantIds(int partitionSize) {
+    checkArgument(partitionSize > 0, "partitionSize must be positive");
+    return Source.completionStage(lookupApplicantIdRange())
+        .flatMapConcat(
+            range ->
+                range
+                    .map(ids -> partitionIds(ids.first(), ids.second(), partitionSize))
+                    .orElse(Source.empty()));
+  }
+
+  private static Source<Pair<Long, Long>, NotUsed> partitionIds(
+      long firstId, long lastId, int partitionSize) {
+    return Source.<Long, Pair<Long, Long>>unfold(
+        firstId,
+        (Long start) -> {
+          if (start > lastId) {
+            return Optional.empty();
+          }
+          long end = Math.min(start + partitionSize - 1, lastId);
+          return Optional.of(Pair.create(end + 1, Pair.create(start, end)));
+        });
+  }
+
+  /** The first and last applicant id, if there are any applicants. */
+  private CompletionStage<Optional<Pair<Long, Long>>> lookupApplicantIdRange() {
+    return supplyAsync(
+        () -> {
+          SqlRow row =
+              ebeanServer
+                  .createSqlQuery("select min(id) as first_id, max(id) as last_id from applicants")
+                  .findOne();
+          if (row == null || row.getLong("first_id") == null) {
+            return Optional.empty();
+          }
+          return Optional.of(Pair.create(row.getLong("first_id"), row.getLong("last_id")));
+        },
+        executionContext);
+  }
+
+  /** Loads the applicants whose ids are from {@code firstId} to {@code lastId}, in id order. */
+  public CompletionStage<ImmutableList<Applicant>> listApplicantsInIdRange(
+      long firstId, long lastId) {
+    return supplyAsync(
+        () ->
+            ImmutableList.copyOf(
+                ebeanServer
+                    .find(Applicant.class)
+                    .where()
+                    .between("id", firstId, lastId)
+                    .orderBy("id")
+                    .findList()),
+        executionContext);
+  }
+
+  /**
+   * Streams every applicant in id order as CSV: a row of the columns' headers, then a row of each
+   * applicant's values for the columns.
+   *
+   * <p>The values are extracted in the database with {@code jsonb} operators, and the rows are
+   * produced by a single {@code COPY ... TO STDOUT}, which is read a row at a time as downstream
+   * demands it. Rows that are ready while downstream is busy are joined into one element.
+   * Applicant JSON is never loaded or parsed here. A value that is missing, or is not a string,
+   * number or boolean, is written as {@code COLUMN_EMPTY}, as {@code export.CsvExporter} does.
+   * Records end with a line feed, as Postgres writes them.
+   */
+  public Source<ByteString, NotUsed> streamApplicantsAsCsv(ImmutableList<Column> columns) {
+    String copyStatement = buildCsvCopyStatement(columns);
+    return Source.lazySingle(() -> formatCsvHeaders(columns))
+        .concat(
+            Source.unfoldResource(
+                () -> CopyOutCursor.open(ebeanServer, copyStatement),
+                CopyOutCursor::read,
+                CopyOutCursor::close))
+        .batch(DEFAULT_PAGE_SIZE, row -> row, ByteString::concat);
+  }
+
+  private static ByteString formatCsvHeaders(ImmutableList<Column> columns) throws IOException {
+    StringBuilder headers = new StringBuilder();
+    CSVPrinter printer = new CSVPrinter(headers, CSVFormat.DEFAULT.withRecordSeparator('\n'));
+    for (Column column : columns) {
+      printer.print(column.header());
+    }
+    printer.println();
+    return ByteString.fromString(headers.toString(), StandardCharsets.UTF_8);
+  }
+
+  /** Builds the {@code COPY} statement for {@link #streamApplicantsAsCsv}. */
+  static String buildCsvCopyStatement(ImmutableList<Column> columns) {
+    StringBuilder select = new StringBuilder();
+    for (Column column : columns) {
+      String path = quoteLiteral(asPostgresTextArray(Path.create(column.jsonPath())));
+      if (select.length() > 0) {
+        select.append(", ");
+      }
+      select
+          .append("case when jsonb_typeof(object #> ")
+          .append(path)
+          .append(") in ('string', 'number', 'boolean') then object #>> ")
+          .append(path)
+          .append(" else 'COLUMN_EMPTY' end");
+    }
+    return "copy (select " + select + " from applicants order by id) to stdout with (format csv)";
+  }
+
+  /** Quotes a string as a Postgres literal. {@code COPY} does not take bind parameters. */
+  private static String quoteLiteral(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  /** A running {@code COPY ... TO STDOUT}, read a row at a time, and the transaction it runs in. */
+  private static final class CopyOutCursor {
+    private final Transaction transaction;
+    private final CopyOut copyOut;
+
+    private CopyOutCursor(Transaction transaction, CopyOut copyOut) {
+      this.transaction = transaction;
+      this.copyOut = copyOut;
+    }
+
+    /**
+     * Starts the copy in a transaction of its own. The transaction is not bound to the thread,
+     * since reads may happen on any thread of the stream's blocking dispatcher.
+     */
+    static CopyOutCursor open(EbeanServer ebeanServer, String copyStatement) throws SQLException {
+      Transaction transaction = ebeanServer.createTransaction();
+      try {
+        CopyOut copyOut =
+            transaction
+                .getConnection()
+                .unwrap(PGConnection.class)
+                .getCopyAPI()
+                .copyOut(copyStatement);
+        return new CopyOutCursor(transaction, copyOut);
+      } catch (SQLException e) {
+        transaction.end();
+        throw e;
+      }
+    }
+
+    Optional<ByteString> read() throws SQLException {
+      byte[] row = copyOut.readFromCopy();
+      return row == null ? Optional.empty() : Optional.of(ByteString.fromArray(row));
+    }
+
+    /** Cancels the copy if the stream ended early, e.g. because the client went away. */
+    void close() throws SQLException {
+      try {
+        if (copyOut.isActive()) {
+          copyOut.cancelCopy();
+        }
+      } finally {
+        transaction.end();
+      }
+    }
+  }
+
   public CompletionStage<Optional<Applicant>> lookupApplicant(long id) {
     return supplyAsync(
         () -> ebeanServer.find(Applicant.class).setId(id).findOneOrEmpty(), executionContext);
   }
 
+  /**
+   * Looks up all of the given applicants in a single query. Ids with no matching applicant are
+   * absent from the returned map.
+   */
+  public CompletionStage<ImmutableMap<Long, Applicant>> lookupApplicants(ImmutableSet<Long> ids) {
+    if (ids.isEmpty()) {
+      return CompletableFuture.completedFuture(ImmutableMap.of());
+    }
+    return supplyAsync(
+        () ->
+            ebeanServer.find(Applicant.class).where().idIn(ids).findList().stream()
+                .collect(
+                    ImmutableMap.toImmutableMap(applicant -> applicant.id, applicant -> applicant)),
+        executionContext);
+  }
+
   public CompletionStage<Optional<Applicant>> lookupApplicant(String emailAddress) {
     return supplyAsync(
         () -> {
           if (emailAddress == null || emailAddress.isEmpty()) {
             return Optional.empty();
           }
-          Optional<Account> accountMaybe =
-              ebeanServer
-                  .find(Account.class)
-                  .where()
-                  .eq("email_address", emailAddress)
-                  .findOneOrEmpty();
-          // Return the applicant which was most recently created.
-          return accountMaybe.flatMap(
-              applicant ->
-                  applicant.getApplicants().stream()
-                      .max(
-                          Comparator.comparing(
-                              compared -> compared.getApplicantData().getCreatedTime())));
+          return findNewestApplicant(
+              ebeanServer.find(Applicant.class).where().eq("account.emailAddress", emailAddress));
         },
         executionContext);
   }
 
+  /** Returns the most recently created applicant for the account, if there is one. */
+  public CompletionStage<Optional<Applicant>> lookupApplicantForAccount(long accountId) {
+    return supplyAsync(
+        () ->
+            findNewestApplicant(
+                ebeanServer.find(Applicant.class).where().eq("account.id", accountId)),
+        executionContext);
+  }
+
+  /**
+   * Runs {@code query} as a single indexed {@code ORDER BY created_time DESC LIMIT 1}, without
+   * loading or parsing any other applicants.
+   */
+  private Optional<Applicant> findNewestApplicant(ExpressionList<Applicant> query) {
+    return query.orderBy("createdTime desc nulls last").setMaxRows(1).findOneOrEmpty();
+  }
+
   public CompletionStage<Void> insertApplicant(Applicant applicant) {
     return supplyAsync(
         () -> {
@@ -66,15 +313,94 @@ public class ApplicantRepository {
         executionContext);
   }
 
+  /**
+   * Persists changes to the applicant's {@link ApplicantData}. Only the paths that changed since
+   * the applicant was loaded are written, as {@code jsonb_set} patches on the stored object, and no
+   * statement is issued at all if nothing changed. Other properties of the {@link Applicant} must
+   * be persisted with {@code save()}.
+   */
   public CompletionStage<Void> updateApplicant(Applicant applicant) {
     return supplyAsync(
         () -> {
-          ebeanServer.update(applicant);
+          ApplicantData applicantData = applicant.getApplicantData();
+          if (!applicantData.isDirty()) {
+            return null;
+          }
+          buildPartialUpdate(applicant.id, applicantData).execute();
+          applicantData.clearDirty();
+          applicant.incrementVersion();
           return null;
         },
         executionContext);
   }
 
+  /**
+   * Builds a single UPDATE that applies one nested {@code jsonb_set} per changed path, and sets the
+   * preferred locale and created time columns if they changed.
+   */
+  private SqlUpdate buildPartialUpdate(long applicantId, ApplicantData applicantData) {
+    ImmutableList<Path> dirtyPaths = applicantData.dirtyPaths().asList();
+    StringBuilder objectExpression = new StringBuilder("object");
+    for (int i = 0; i < dirtyPaths.size(); i++) {
+      objectExpression.insert(0, "jsonb_set(").append(", ?::text[], ?::jsonb, true)");
+    }
+
+    StringBuilder sql =
+        new StringBuilder("update applicants set object = ").append(objectExpression);
+    if (applicantData.isPreferredLocaleDirty()) {
+      sql.append(", preferred_locale = ?");
+    }
+    if (applicantData.isCreatedTimeDirty()) {
+      sql.append(", created_time = ?");
+    }
+    sql.append(" where id = ?");
+
+    SqlUpdate update = ebeanServer.createSqlUpdate(sql.toString());
+    int position = 1;
+    for (Path path : dirtyPaths) {
+      update.setParameter(position++, asPostgresTextArray(path));
+      update.setParameter(position++, applicantData.asJsonString(path));
+    }
+    if (applicantData.isPreferredLocaleDirty()) {
+      update.setParameter(position++, applicantData.preferredLocale().toLanguageTag());
+    }
+    if (applicantData.isCreatedTimeDirty()) {
+      update.setParameter(position++, Timestamp.from(applicantData.getCreatedTime()));
+    }
+    update.setParameter(position, applicantId);
+    return update;
+  }
+
+  /** Formats a path as a Postgres text array literal, e.g. {@code {"applicant","name"}}. */
+  private static String asPostgresTextArray(Path path) {
+    StringBuilder array = new StringBuilder("{");
+    for (String segment : path.segments()) {
+      if (array.length() > 1) {
+        array.append(',');
+      }
+      array
+          .append('"')
+          .append(segment.replace("\\", "\\\\").replace("\"", "\\\""))
+          .append('"');
+    }
+    return array.append('}').toString();
+  }
+
+  /**
+   * Looks up just the applicant's version, which the database advances on every write. Much
+   * cheaper than loading the applicant, so a cached copy can be checked before it is used.
+   */
+  public CompletionStage<Optional<Long>> lookupApplicantVersion(long id) {
+    return supplyAsync(
+        () ->
+            ebeanServer
+                .createSqlQuery("select version from applicants where id = ?")
+                .setParameter(1, id)
+                .findOneOrEmpty()
+                .map(row -> row.getLong("version")),
+        executionContext);
+  }
+
   public Optional<Applicant> lookupApplicantSync(long id) {
     return ebeanServer.find(Applicant.class).setId(id).findOneOrEmpty();
   }
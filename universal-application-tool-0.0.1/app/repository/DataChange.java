@@ -0,0 +1,51 @@
+package repository;
+
+import io.ebean.EbeanServer;
+
+/**
+ * A change to question or program data that other nodes need to hear about, so they can
+ * invalidate anything they have cached from it.
+ *
+ * <p>Changes are sent with Postgres {@code NOTIFY} on {@link #CHANNEL}. Postgres delivers a
+ * notification when the sending transaction commits, and drops it if the transaction rolls back,
+ * so listeners never invalidate ahead of the data. {@link DataChangeSubscriber} receives them.
+ */
+public enum DataChange {
+  QUESTIONS,
+  PROGRAMS,
+  ALL;
+
+  public static final String CHANNEL = "data_changes";
+
+  /** Sends this change to every node, including this one, in the current transaction if any. */
+  public void publish(EbeanServer ebeanServer) {
+    ebeanServer.createSqlUpdate(String.format("notify %s, '%s'", CHANNEL, name())).execute();
+  }
+
+  /** Advances the local {@link DataVersions} for this change. */
+  void apply() {
+    switch (this) {
+      case QUESTIONS:
+        DataVersions.questionsChanged();
+        break;
+      case PROGRAMS:
+        DataVersions.programsChanged();
+        break;
+      case ALL:
+        DataVersions.allChanged();
+        break;
+    }
+  }
+
+  /** Parses a notification payload, treating anything unrecognized as a change to everything. */
+  static DataChange fromPayload(String payload) {
+    if (payload == null) {
+      return ALL;
+    }
+    try {
+      return valueOf(payload);
+    } catch (IllegalArgumentException e) {
+      return ALL;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.typesafe.config.Config;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+/**
+ * Listens for {@link DataChange} notifications from every node and advances the local {@link
+ * DataVersions}, so caches of question and program data on this node are invalidated by admin
+ * edits made on any node.
+ *
+ * <p>Uses its own connection rather than one from the pool, since a listening connection is held
+ * for the lifetime of the application. If the connection is lost it reconnects, and treats
+ * everything as changed because notifications sent in the meantime were missed.
+ */
+@Singleton
+public class DataChangeSubscriber {
+  private static final Logger log = LoggerFactory.getLogger(DataChangeSubscriber.class);
+  private static final String DB_DRIVER = "db.default.driver";
+  private static final String DB_URL = "db.default.url";
+  private static final String DB_USERNAME = "db.default.username";
+  private static final String DB_PASSWORD = "db.default.password";
+  private static final int POLL_TIMEOUT_MILLIS = 1000;
+  private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+  private final Config config;
+  private final Thread listenerThread;
+  private volatile boolean running = true;
+
+  @Inject
+  public DataChangeSubscriber(ApplicationLifecycle appLifecycle, Config config) {
+    this.config = checkNotNull(config);
+
+    listenerThread = new Thread(this::listen, "data-change-subscriber");
+    listenerThread.setDaemon(true);
+    if (config.hasPath(DB_URL)) {
+      listenerThread.start();
+    } else {
+      log.info("no database configured, not listening for data changes");
+    }
+
+    checkNotNull(appLifecycle)
+        .addStopHook(
+            () -> {
+              running = false;
+              listenerThread.interrupt();
+              return CompletableFuture.completedFuture(null);
+            });
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = connect()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("listen " + DataChange.CHANNEL);
+        }
+        // Changes made while we were not listening were missed.
+        DataVersions.allChanged();
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+          if (notifications == null) {
+            continue;
+          }
+          for (PGNotification notification : notifications) {
+            DataChange.fromPayload(notification.getParameter()).apply();
+          }
+        }
+      } catch (SQLException | ClassNotFoundException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("lost data change notifications connection, reconnecting", e);
+        try {
+          Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private Connection connect() throws SQLException, ClassNotFoundException {
+    if (config.hasPath(DB_DRIVER)) {
+      // Make sure the driver has registered itself with DriverManager.
+      Class.forName(config.getString(DB_DRIVER));
+    }
+    Properties properties = new Properties();
+    if (config.hasPath(DB_USERNAME)) {
+      properties.setProperty("user", config.getString(DB_USERNAME));
+    }
+    if (config.hasPath(DB_PASSWORD)) {
+      properties.setProperty("password", config.getString(DB_PASSWORD));
+    }
+    return DriverManager.getConnection(config.getString(DB_URL), properties);
+  }
+}
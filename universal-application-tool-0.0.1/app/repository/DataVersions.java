@@ -0,0 +1,69 @@
+package repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for the question and program tables, advanced after every committed change to
+ * them. Anything cached from those tables records the version it was built from and is rebuilt
+ * once the version moves on.
+ *
+ * <p>Ebean persists are counted by {@link DataVersionsListener}. Changes made outside of Ebean's
+ * persist path, like truncating tables, must call {@link #allChanged()} themselves. Changes made
+ * on other nodes arrive through {@link DataChangeSubscriber}.
+ *
+ * <p>The counters are static because the listener is created by Ebean rather than by Guice.
+ */
+public final class DataVersions {
+  private static final AtomicLong questionsVersion = new AtomicLong();
+  private static final AtomicLong programsVersion = new AtomicLong();
+
+  private DataVersions() {}
+
+  /** The current version of the questions table. */
+  public static long questions() {
+    return questionsVersion.get();
+  }
+
+  /** The current version of the programs table. */
+  public static long programs() {
+    return programsVersion.get();
+  }
+
+  public static void questionsChanged() {
+    questionsVersion.incrementAndGet();
+  }
+
+  public static void programsChanged() {
+    programsVersion.incrementAndGet();
+  }
+
+  /** Marks both tables as changed, e.g. after they were truncated. */
+  public static void allChanged() {
+    questionsChanged();
+    programsChanged();
+  }
+
+  /**
+   * Records the current versions of both tables. Take the stamp before loading data that depends
+   * on both, so that a change committed during the load makes the result stale.
+   */
+  public static Stamp stamp() {
+    return new Stamp(questions(), programs());
+  }
+
+  /** The versions of both tables at some point in time. */
+  public static final class Stamp {
+    private final long questionsVersion;
+    private final long programsVersion;
+
+    private Stamp(long questionsVersion, long programsVersion) {
+      this.questionsVersion = questionsVersion;
+      this.programsVersion = programsVersion;
+    }
+
+    /** True if neither table has changed since this stamp was taken. */
+    public boolean isCurrent() {
+      return questionsVersion == questions() && programsVersion == programs();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package repository;
+
+import io.ebean.event.BeanPersistListener;
+import java.util.Set;
+import models.Program;
+import models.Question;
+
+/**
+ * Advances {@link DataVersions} after a {@link Question} or {@link Program} is inserted, updated or
+ * deleted. Ebean calls these methods after the transaction commits, so a cache that reads the
+ * version before loading its data never records a version newer than that data.
+ */
+public class DataVersionsListener implements BeanPersistListener {
+
+  @Override
+  public boolean isRegisterFor(Class<?> cls) {
+    return Question.class.equals(cls) || Program.class.equals(cls);
+  }
+
+  @Override
+  public void inserted(Object bean) {
+    changed(bean);
+  }
+
+  @Override
+  public void updated(Object bean, Set<String> updatedProperties) {
+    changed(bean);
+  }
+
+  @Override
+  public void deleted(Object bean) {
+    changed(bean);
+  }
+
+  @Override
+  public void softDeleted(Object bean) {
+    changed(bean);
+  }
+
+  private static void changed(Object bean) {
+    if (bean instanceof Question) {
+      DataVersions.questionsChanged();
+    } else if (bean instanceof Program) {
+      DataVersions.programsChanged();
+    }
+  }
+}
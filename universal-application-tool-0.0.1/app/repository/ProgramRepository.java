@@ -1,16 +1,29 @@
 package repository;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.ebean.DuplicateKeyException;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.Query;
+import io.ebean.SqlUpdate;
+import io.ebean.Transaction;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import models.Program;
 import play.db.ebean.EbeanConfig;
+import services.program.BlockDefinition;
+import services.program.Predicate;
+import services.program.ProgramDefinition;
+import services.program.ProgramQuestionDefinition;
 
 public class ProgramRepository {
 
@@ -25,23 +38,285 @@ public class ProgramRepository {
 
   /** Return all programs in a list. */
   public CompletionStage<ImmutableList<Program>> listPrograms() {
-    return supplyAsync(
-        () -> ImmutableList.copyOf(ebeanServer.find(Program.class).findList()), executionContext);
+    return supplyAsync(() -> ImmutableList.copyOf(findPrograms().findList()), executionContext);
   }
 
   public CompletionStage<Optional<Program>> lookupProgram(long id) {
     return supplyAsync(
-        () -> ebeanServer.find(Program.class).where().eq("id", id).findOneOrEmpty(),
+        () -> findPrograms().where().eq("id", id).findOneOrEmpty(), executionContext);
+  }
+
+  /** Returns the ids of every program with the question in one of its blocks. */
+  public CompletionStage<ImmutableSet<Long>> lookupProgramIdsUsingQuestion(long questionId) {
+    return supplyAsync(
+        () ->
+            ebeanServer
+                .createSqlQuery(
+                    "select distinct program_blocks.program_id from program_block_questions"
+                        + " join program_blocks"
+                        + " on program_blocks.id = program_block_questions.program_block_id"
+                        + " where program_block_questions.question_id = ?")
+                .setParameter(1, questionId)
+                .findList()
+                .stream()
+                .map(row -> row.getLong("program_id"))
+                .collect(ImmutableSet.toImmutableSet()),
         executionContext);
   }
 
+  /** Loads programs together with their blocks and block questions, rather than one at a time. */
+  private Query<Program> findPrograms() {
+    return ebeanServer.find(Program.class).fetch("blocks").fetch("blocks.questions");
+  }
+
   public Program insertProgramSync(Program program) {
-    ebeanServer.insert(program);
+    inTransaction(() -> ebeanServer.insert(program));
     return program;
   }
 
+  /** Replaces the program, including all of its blocks. */
   public Program updateProgramSync(Program program) {
-    ebeanServer.update(program);
+    inTransaction(() -> ebeanServer.update(program));
     return program;
   }
+
+  /** Updates the program's name and description without touching its blocks. */
+  public void updateProgramDetailsSync(long programId, String name, String description) {
+    inProgramTransaction(programId, () -> updateProgramDetails(programId, name, description));
+  }
+
+  /**
+   * Adds the block, and its questions, after the program's existing blocks.
+   *
+   * @throws OptimisticLockException if the program already has a block with the block's id, e.g.
+   *     because the id was chosen from an out of date definition; nothing is written
+   */
+  public void insertBlockSync(long programId, BlockDefinition block) {
+    inProgramTransaction(programId, () -> insertBlock(programId, block));
+  }
+
+  /**
+   * Updates the block's own row: its name, description and predicates. Its questions are left as
+   * they are; see {@link #setBlockQuestionsSync}.
+   */
+  public void updateBlockSync(long programId, BlockDefinition block) {
+    inProgramTransaction(programId, () -> updateBlock(programId, block));
+  }
+
+  /** Replaces the questions of one block, leaving the program's other blocks untouched. */
+  public void setBlockQuestionsSync(long programId, long blockId, ImmutableList<Long> questionIds) {
+    inProgramTransaction(programId, () -> setBlockQuestions(programId, blockId, questionIds));
+  }
+
+  /** Deletes the block and its questions. */
+  public void deleteBlockSync(long programId, long blockId) {
+    inProgramTransaction(programId, () -> deleteBlock(programId, blockId));
+  }
+
+  /**
+   * Writes the differences between two versions of a program in one transaction. The program row
+   * is only written if its name or description changed, and only blocks that were added, removed
+   * or changed are written. Blocks are only ever appended or removed, so the remaining blocks keep
+   * their positions.
+   *
+   * <p>{@code existing} must be the program as it is stored: it is compared with the stored program
+   * while the program is locked, so that a concurrent write is never silently overwritten.
+   *
+   * @throws OptimisticLockException if the stored program no longer matches {@code existing}, or a
+   *     block added by {@code updated} has the id of a block the program already has; nothing is
+   *     written
+   */
+  public void updateProgramSync(ProgramDefinition existing, ProgramDefinition updated) {
+    checkArgument(existing.id() == updated.id(), "cannot change a program's id");
+    long programId = existing.id();
+    inProgramTransaction(
+        programId,
+        () -> {
+          Optional<Program> stored = findPrograms().where().eq("id", programId).findOneOrEmpty();
+          if (stored.isEmpty()
+              || !storedFields(stored.get().getProgramDefinition())
+                  .equals(storedFields(existing))) {
+            throw new OptimisticLockException("The program was changed concurrently.");
+          }
+
+          if (!existing.name().equals(updated.name())
+              || !existing.description().equals(updated.description())) {
+            updateProgramDetails(programId, updated.name(), updated.description());
+          }
+
+          ImmutableMap<Long, BlockDefinition> existingBlocks =
+              existing.blockDefinitions().stream()
+                  .collect(ImmutableMap.toImmutableMap(BlockDefinition::id, block -> block));
+          ImmutableSet<Long> updatedBlockIds =
+              updated.blockDefinitions().stream()
+                  .map(BlockDefinition::id)
+                  .collect(ImmutableSet.toImmutableSet());
+          for (long blockId : existingBlocks.keySet()) {
+            if (!updatedBlockIds.contains(blockId)) {
+              deleteBlock(programId, blockId);
+            }
+          }
+
+          for (BlockDefinition block : updated.blockDefinitions()) {
+            BlockDefinition existingBlock = existingBlocks.get(block.id());
+            if (existingBlock == null) {
+              insertBlock(programId, block);
+              continue;
+            }
+            if (!block.name().equals(existingBlock.name())
+                || !block.description().equals(existingBlock.description())
+                || !block.hidePredicate().equals(existingBlock.hidePredicate())
+                || !block.optionalPredicate().equals(existingBlock.optionalPredicate())) {
+              updateBlock(programId, block);
+            }
+            ImmutableList<Long> questionIds = questionIds(block);
+            if (!questionIds.equals(questionIds(existingBlock))) {
+              setBlockQuestions(programId, block.id(), questionIds);
+            }
+          }
+        });
+  }
+
+  private void updateProgramDetails(long programId, String name, String description) {
+    ebeanServer
+        .createSqlUpdate("update programs set name = ?, description = ? where id = ?")
+        .setParameter(1, name)
+        .setParameter(2, description)
+        .setParameter(3, programId)
+        .execute();
+  }
+
+  private void insertBlock(long programId, BlockDefinition block) {
+    ebeanServer
+        .createSqlUpdate(
+            "insert into program_blocks (program_id, block_id, position, name, description,"
+                + " hide_predicate, optional_predicate)"
+                + " select ?, ?, coalesce(max(position) + 1, 0), ?, ?, nullif(?, ''),"
+                + " nullif(?, '') from program_blocks where program_id = ?")
+        .setParameter(1, programId)
+        .setParameter(2, block.id())
+        .setParameter(3, block.name())
+        .setParameter(4, block.description())
+        .setParameter(5, expression(block.hidePredicate()))
+        .setParameter(6, expression(block.optionalPredicate()))
+        .setParameter(7, programId)
+        .execute();
+    insertBlockQuestions(programId, block.id(), questionIds(block));
+  }
+
+  private void updateBlock(long programId, BlockDefinition block) {
+    ebeanServer
+        .createSqlUpdate(
+            "update program_blocks set name = ?, description = ?,"
+                + " hide_predicate = nullif(?, ''), optional_predicate = nullif(?, '')"
+                + " where program_id = ? and block_id = ?")
+        .setParameter(1, block.name())
+        .setParameter(2, block.description())
+        .setParameter(3, expression(block.hidePredicate()))
+        .setParameter(4, expression(block.optionalPredicate()))
+        .setParameter(5, programId)
+        .setParameter(6, block.id())
+        .execute();
+  }
+
+  private void setBlockQuestions(long programId, long blockId, ImmutableList<Long> questionIds) {
+    ebeanServer
+        .createSqlUpdate(
+            "delete from program_block_questions where program_block_id in"
+                + " (select id from program_blocks where program_id = ? and block_id = ?)")
+        .setParameter(1, programId)
+        .setParameter(2, blockId)
+        .execute();
+    insertBlockQuestions(programId, blockId, questionIds);
+  }
+
+  private void deleteBlock(long programId, long blockId) {
+    ebeanServer
+        .createSqlUpdate("delete from program_blocks where program_id = ? and block_id = ?")
+        .setParameter(1, programId)
+        .setParameter(2, blockId)
+        .execute();
+  }
+
+  /** Inserts the block's question references in a single statement. */
+  private void insertBlockQuestions(long programId, long blockId, ImmutableList<Long> questionIds) {
+    if (questionIds.isEmpty()) {
+      return;
+    }
+    SqlUpdate insert =
+        ebeanServer.createSqlUpdate(
+            "insert into program_block_questions (program_block_id, question_id, position)"
+                + " select program_blocks.id, questions.question_id, questions.position"
+                + " from program_blocks, (values "
+                + String.join(
+                    ", ", Collections.nCopies(questionIds.size(), "(cast(? as bigint), ?)"))
+                + ") as questions (question_id, position)"
+                + " where program_blocks.program_id = ? and program_blocks.block_id = ?");
+    int parameter = 1;
+    for (int position = 0; position < questionIds.size(); position++) {
+      insert.setParameter(parameter++, questionIds.get(position));
+      insert.setParameter(parameter++, position);
+    }
+    insert.setParameter(parameter++, programId);
+    insert.setParameter(parameter, blockId);
+    insert.execute();
+  }
+
+  private static ImmutableList<Long> questionIds(BlockDefinition block) {
+    return block.programQuestionDefinitions().stream()
+        .map(ProgramQuestionDefinition::id)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** The parts of a program definition that are stored, in order, for comparing definitions. */
+  private static ImmutableList<Object> storedFields(ProgramDefinition program) {
+    ImmutableList.Builder<Object> fields = ImmutableList.builder();
+    fields.add(program.name(), program.description());
+    for (BlockDefinition block : program.blockDefinitions()) {
+      fields.add(
+          block.id(),
+          block.name(),
+          block.description(),
+          expression(block.hidePredicate()),
+          expression(block.optionalPredicate()),
+          questionIds(block));
+    }
+    return fields.build();
+  }
+
+  /** The predicate's expression, or an empty string, which the SQL above stores as null. */
+  private static String expression(Optional<Predicate> predicate) {
+    return predicate.map(Predicate::expression).orElse("");
+  }
+
+  /**
+   * Runs {@code statements} in one transaction with the program's row locked, so that writes to
+   * the same program are applied one after another.
+   */
+  private void inProgramTransaction(long programId, Runnable statements) {
+    inTransaction(
+        () -> {
+          ebeanServer
+              .createSqlQuery("select id from programs where id = ? for update")
+              .setParameter(1, programId)
+              .findOne();
+          statements.run();
+        });
+  }
+
+  /**
+   * Runs {@code statements} in one transaction and publishes the change, which is only sent if they
+   * commit. Most statements here bypass Ebean's persist listeners, so {@link DataVersions} is
+   * advanced here once they commit. A block id that the program already has rolls them back.
+   */
+  private void inTransaction(Runnable statements) {
+    try (Transaction transaction = ebeanServer.beginTransaction()) {
+      statements.run();
+      DataChange.PROGRAMS.publish(ebeanServer);
+      transaction.commit();
+    } catch (DuplicateKeyException e) {
+      throw new OptimisticLockException("A block with the same id was added concurrently.", e);
+    }
+    DataVersions.programsChanged();
+  }
 }
@@ -3,8 +3,13 @@ package repository;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+import com.google.common.collect.ImmutableList;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.Transaction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
@@ -54,23 +59,77 @@ public class QuestionRepository {
       return proceed;
     }
 
+    /** True if the paths are equal, or one is a parent of the other, ignoring case. */
     static boolean pathConflicts(String path, String otherPath) {
       path = path.toLowerCase();
       otherPath = otherPath.toLowerCase();
-      return path.startsWith(otherPath) || otherPath.startsWith(path);
+      return path.equals(otherPath)
+          || path.startsWith(otherPath + ".")
+          || otherPath.startsWith(path + ".");
     }
   }
 
+  /**
+   * Finds a question whose path conflicts with {@code newPath}, i.e. the paths are equal or one is
+   * a parent of the other, ignoring case.
+   *
+   * <p>Rather than scanning the question bank, only candidate rows are loaded: those whose
+   * lowercase path lies under the new path, found as a range of the index on {@code lower(path)},
+   * and those whose lowercase path equals the new path or one of its parents, found by equality on
+   * the same index. Both forms use the index whether the statement is planned for its parameter
+   * values or as a generic prepared plan, which a {@code like} with a bound pattern does not. The
+   * cost depends on the path's depth rather than the number of questions. {@link
+   * PathConflictDetector} still makes the final decision on the candidates.
+   */
   public CompletionStage<Optional<Question>> findConflictingQuestion(Path newPath) {
     return supplyAsync(
         () -> {
           PathConflictDetector detector = new PathConflictDetector(newPath);
-          ebeanServer.find(Question.class).findEachWhile(detector::checkConflict);
+          String lowerPath = newPath.path().toLowerCase();
+          ImmutableList<String> paths = pathAndParents(lowerPath);
+          List<Object> params = new ArrayList<>();
+          // Children of the path sort from "<path>." up to, but not including, "<path>/".
+          params.add(lowerPath + ".");
+          params.add(lowerPath + "/");
+          params.addAll(paths);
+          ebeanServer
+              .find(Question.class)
+              .where()
+              .raw(conflictCondition(paths.size()), params.toArray())
+              .findEachWhile(detector::checkConflict);
           return detector.getConflictedQuestion();
         },
         executionContext);
   }
 
+  /**
+   * The condition on {@code lower(path)} for {@link #findConflictingQuestion}. Its parameters are
+   * the lower and upper bounds of the children's range, then each of the {@code pathCount} paths
+   * to match exactly.
+   */
+  static String conflictCondition(int pathCount) {
+    String children = "(lower(path) ~>=~ ? and lower(path) ~<~ ?)";
+    if (pathCount == 0) {
+      return children;
+    }
+    return children
+        + " or lower(path) in ("
+        + String.join(", ", Collections.nCopies(pathCount, "?"))
+        + ")";
+  }
+
+  /** The path and each of its parents, i.e. every prefix that ends at a segment boundary. */
+  private static ImmutableList<String> pathAndParents(String path) {
+    if (path.isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<String> paths = ImmutableList.builder();
+    for (int end = path.indexOf('.'); end >= 0; end = path.indexOf('.', end + 1)) {
+      paths.add(path.substring(0, end));
+    }
+    return paths.add(path).build();
+  }
+
   public CompletionStage<Optional<Question>> lookupQuestionByPath(String path) {
     return supplyAsync(
         () -> ebeanServer.find(Question.class).where().eq("path", path).findOneOrEmpty(),
@@ -79,29 +138,35 @@ public class QuestionRepository {
 
   public CompletionStage<Question> insertQuestion(Question question) {
     return supplyAsync(
-        () -> {
-          ebeanServer.insert(question);
-          return question;
-        },
+        () -> insertQuestionSync(question),
         executionContext);
   }
 
   public Question insertQuestionSync(Question question) {
-    ebeanServer.insert(question);
+    inTransaction(() -> ebeanServer.insert(question));
     return question;
   }
 
   public CompletionStage<Question> updateQuestion(Question question) {
     return supplyAsync(
-        () -> {
-          ebeanServer.update(question);
-          return question;
-        },
+        () -> updateQuestionSync(question),
         executionContext);
   }
 
   public Question updateQuestionSync(Question question) {
-    ebeanServer.update(question);
+    inTransaction(() -> ebeanServer.update(question));
     return question;
   }
+
+  /**
+   * Runs {@code write} and publishes the change in one transaction, so the change is only sent if
+   * the write commits.
+   */
+  private void inTransaction(Runnable write) {
+    try (Transaction transaction = ebeanServer.beginTransaction()) {
+      write.run();
+      DataChange.QUESTIONS.publish(ebeanServer);
+      transaction.commit();
+    }
+  }
 }
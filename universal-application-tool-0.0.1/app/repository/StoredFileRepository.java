@@ -5,6 +5,7 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
@@ -53,4 +54,20 @@ public class StoredFileRepository {
         },
         executionContext);
   }
+
+  /**
+   * Stores the content of a file on disk under the given name, without reading it into memory. The
+   * file on disk is left in place.
+   */
+  public CompletionStage<Long> insertFromFile(String name, Path content) {
+    return supplyAsync(
+        () -> {
+          StoredFile file = new StoredFile();
+          file.setName(name);
+          ebeanServer.insert(file);
+          s3Client.putObject(name, content);
+          return file.id;
+        },
+        executionContext);
+  }
 }
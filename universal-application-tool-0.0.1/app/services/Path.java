@@ -4,6 +4,9 @@ import com.google.auto.value.AutoValue;
 import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 
@@ -17,12 +20,35 @@ public abstract class Path {
   private static final String JSON_PATH_START = "$" + JSON_PATH_DIVIDER;
   private static final Splitter JSON_SPLITTER = Splitter.on(JSON_PATH_DIVIDER);
   private static final Joiner JSON_JOINER = Joiner.on(JSON_PATH_DIVIDER);
+  private static final Path EMPTY = create(ImmutableList.of());
+
+  /**
+   * Canonical instances for path strings, so that hot call sites creating the same path over and
+   * over (e.g. once per exported column per applicant) share one instance along with its memoized
+   * hash code, parent chain and path string. Bounded, since paths come from admin-defined
+   * questions and submitted form keys.
+   */
+  private static final LoadingCache<String, Path> CANONICAL_PATHS =
+      CacheBuilder.newBuilder()
+          .maximumSize(10_000)
+          .build(
+              new CacheLoader<String, Path>() {
+                @Override
+                public Path load(String path) {
+                  return parse(path);
+                }
+              });
 
   public static Path empty() {
-    return create(ImmutableList.of());
+    return EMPTY;
   }
 
+  /** Returns the canonical {@link Path} for the given JSON path string. */
   public static Path create(String path) {
+    return CANONICAL_PATHS.getUnchecked(path);
+  }
+
+  private static Path parse(String path) {
     path = path.trim();
     if (path.startsWith(JSON_PATH_START)) {
       path = path.substring(JSON_PATH_START.length());
@@ -43,6 +69,10 @@ public abstract class Path {
    */
   public abstract ImmutableList<String> segments();
 
+  @Memoized
+  @Override
+  public abstract int hashCode();
+
   /** A single path in JSON notation, without the $. JsonPath prefix. */
   @Memoized
   public String path() {
@@ -91,6 +121,15 @@ public abstract class Path {
     return ImmutableList.copyOf(parentPaths);
   }
 
+  /**
+   * True if this path is equal to or nested beneath {@code other}. For example, {@code
+   * applicant.favorites.color} starts with {@code applicant.favorites}.
+   */
+  public boolean startsWith(Path other) {
+    int length = other.segments().size();
+    return segments().size() >= length && segments().subList(0, length).equals(other.segments());
+  }
+
   public abstract Builder toBuilder();
 
   public static Builder builder() {
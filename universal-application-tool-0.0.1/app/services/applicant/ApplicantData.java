@@ -2,15 +2,26 @@ package services.applicant;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
-import com.jayway.jsonpath.spi.mapper.MappingException;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -19,16 +30,59 @@ import java.util.Optional;
 import javax.annotation.Nullable;
 import services.Path;
 
+/**
+ * The answers an applicant has given, along with some metadata about the applicant.
+ *
+ * <p>Data is held as a flat map from {@link Path} to value rather than as a JSON document, so reads
+ * and writes are a single hash lookup on the path instead of a JsonPath evaluation. JSON objects
+ * are recorded as nodes in the same map so that empty objects survive a round trip. The JSON
+ * representation is only built when {@link #asJsonString()} is called, e.g. when the {@link
+ * models.Applicant} is persisted.
+ *
+ * <p>The JSON an instance is created from is not parsed until a value is first read or written, so
+ * applicants that are loaded but only looked at for their metadata never build the path map.
+ */
 public class ApplicantData {
-  // Suppress errors thrown by JsonPath and instead return null if a path does not exist in a JSON
-  // blob.
-  private static final Configuration CONFIGURATION =
-      Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-  private static final String EMPTY_APPLICANT_DATA_JSON = "{ \"applicant\": {}, \"metadata\": {} }";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final TypeReference<LinkedHashMap<String, Object>> JSON_OBJECT_TYPE =
+      new TypeReference<LinkedHashMap<String, Object>>() {};
+  private static final ObjectMapper CANONICAL_MAPPER =
+      new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+  private static final String EMPTY_APPLICANT_DATA_JSON = "{\"applicant\":{},\"metadata\":{}}";
   private static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
+  private static final Path CREATED_TIME_PATH = Path.create("metadata.created_time");
+
+  /** Marks a path in {@link #nodes} that holds a JSON object rather than a value. */
+  private enum ObjectNode {
+    INSTANCE
+  }
 
   private Locale preferredLocale;
-  private DocumentContext jsonData;
+
+  /**
+   * Every node in the document, keyed by its path. Insertion order is preserved and a parent is
+   * always present before any of its children.
+   */
+  private final LinkedHashMap<Path, Object> nodes = new LinkedHashMap<>();
+
+  /** The JSON this data was created from, until it is first parsed into {@link #nodes}. */
+  @Nullable private String unparsedJson;
+
+  /**
+   * The canonical JSON and its digest, used for equality and hashing. Cleared whenever the data
+   * changes.
+   */
+  @Nullable private byte[] canonicalJson;
+
+  @Nullable private HashCode digest;
+
+  /**
+   * Paths whose values have changed since this data was loaded or last persisted. When a write
+   * creates missing parent objects, only the outermost new object is recorded.
+   */
+  private final LinkedHashSet<Path> dirtyPaths = new LinkedHashSet<>();
+
+  private boolean preferredLocaleDirty = false;
 
   public ApplicantData() {
     this(EMPTY_APPLICANT_DATA_JSON);
@@ -40,7 +94,17 @@ public class ApplicantData {
 
   public ApplicantData(Locale preferredLocale, String jsonData) {
     this.preferredLocale = preferredLocale;
-    this.jsonData = JsonPath.using(CONFIGURATION).parse(checkNotNull(jsonData));
+    this.unparsedJson = checkNotNull(jsonData);
+  }
+
+  /** Returns {@link #nodes}, parsing the JSON this data was created from on first use. */
+  private LinkedHashMap<Path, Object> nodes() {
+    if (unparsedJson != null) {
+      String json = unparsedJson;
+      unparsedJson = null;
+      flatten(Path.empty(), parse(json));
+    }
+    return nodes;
   }
 
   public Locale preferredLocale() {
@@ -48,6 +112,9 @@ public class ApplicantData {
   }
 
   public void setPreferredLocale(Locale locale) {
+    if (!locale.equals(this.preferredLocale)) {
+      this.preferredLocaleDirty = true;
+    }
     this.preferredLocale = locale;
   }
 
@@ -64,7 +131,7 @@ public class ApplicantData {
   }
 
   /**
-   * Puts the given value at the given path in the underlying JSON data. Builds up the necessary
+   * Puts the given value at the given path in the underlying data. Builds up the necessary
    * structure along the way, i.e., creates parent objects where necessary.
    *
    * @param path the {@link Path} with the fully specified path, e.g., "applicant.favorites.color"
@@ -72,16 +139,108 @@ public class ApplicantData {
    * @param value the value to place; values of type Map will create the equivalent JSON structure
    */
   private void put(Path path, Object value) {
-    path.parentPaths()
-        .forEach(
-            segmentPath -> {
-              if (this.jsonData.read(segmentPath.path()) == null) {
-                this.jsonData.put(
-                    segmentPath.parentPath().path(), segmentPath.keyName(), new HashMap<>());
-              }
-            });
+    if (!(value instanceof Map)
+        && nodes().containsKey(path)
+        && Objects.equals(nodes().get(path), value)) {
+      // Nothing changed, so there is nothing to persist.
+      return;
+    }
+
+    Optional<Path> outermostCreated = Optional.empty();
+    for (Path segmentPath : path.parentPaths()) {
+      Object existing = nodes().get(segmentPath);
+      if (existing != ObjectNode.INSTANCE) {
+        nodes().put(segmentPath, ObjectNode.INSTANCE);
+        if (outermostCreated.isEmpty()) {
+          outermostCreated = Optional.of(segmentPath);
+        }
+      }
+    }
+    markDirty(outermostCreated.orElse(path));
+
+    if (nodes().get(path) == ObjectNode.INSTANCE) {
+      removeDescendants(path);
+    }
+    if (value instanceof Map) {
+      nodes().put(path, ObjectNode.INSTANCE);
+      flatten(path, (Map<?, ?>) value);
+    } else {
+      nodes().put(path, value);
+    }
+  }
+
+  /** Adds {@code object} and everything below it to {@link #nodes}, rooted at {@code root}. */
+  private void flatten(Path root, Map<?, ?> object) {
+    for (Map.Entry<?, ?> entry : object.entrySet()) {
+      Path path = root.toBuilder().append(entry.getKey().toString()).build();
+      if (entry.getValue() instanceof Map) {
+        nodes().put(path, ObjectNode.INSTANCE);
+        flatten(path, (Map<?, ?>) entry.getValue());
+      } else {
+        nodes().put(path, entry.getValue());
+      }
+    }
+  }
+
+  private void markDirty(Path path) {
+    canonicalJson = null;
+    digest = null;
+    for (Path dirtyPath : dirtyPaths) {
+      if (path.startsWith(dirtyPath)) {
+        // An enclosing object is already going to be written in full.
+        return;
+      }
+    }
+    dirtyPaths.removeIf(dirtyPath -> dirtyPath.startsWith(path));
+    dirtyPaths.add(path);
+  }
+
+  /**
+   * True if any value or the preferred locale has changed since this data was loaded or {@link
+   * #clearDirty()} was last called.
+   */
+  public boolean isDirty() {
+    return preferredLocaleDirty || !dirtyPaths.isEmpty();
+  }
 
-    this.jsonData.put(path.parentPath().path(), path.keyName(), value);
+  /** True if the preferred locale has changed since this data was loaded or last persisted. */
+  public boolean isPreferredLocaleDirty() {
+    return preferredLocaleDirty;
+  }
+
+  /**
+   * The paths whose values have changed since this data was loaded or last persisted. No path in
+   * the returned set is nested below another, so each can be written independently with the JSON
+   * from {@link #asJsonString(Path)}.
+   */
+  public ImmutableSet<Path> dirtyPaths() {
+    return ImmutableSet.copyOf(dirtyPaths);
+  }
+
+  /** True if the created time has changed since this data was loaded or last persisted. */
+  public boolean isCreatedTimeDirty() {
+    return dirtyPaths.stream().anyMatch(CREATED_TIME_PATH::startsWith);
+  }
+
+  /** True if a created time has been recorded. */
+  public boolean hasCreatedTime() {
+    return createdTime().isPresent();
+  }
+
+  /** Marks all changes as persisted. */
+  public void clearDirty() {
+    dirtyPaths.clear();
+    preferredLocaleDirty = false;
+  }
+
+  private void removeDescendants(Path path) {
+    Iterator<Path> keys = nodes().keySet().iterator();
+    while (keys.hasNext()) {
+      Path key = keys.next();
+      if (!key.equals(path) && key.startsWith(path)) {
+        keys.remove();
+      }
+    }
   }
 
   /**
@@ -118,32 +277,159 @@ public class ApplicantData {
    * @throws JsonPathTypeMismatchException if the scalar at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, Class<T> type) throws JsonPathTypeMismatchException {
-    try {
-      return Optional.ofNullable(this.jsonData.read(path.path(), type));
-    } catch (MappingException e) {
-      throw new JsonPathTypeMismatchException(path.path(), type, e);
+    Object value = nodes().get(path);
+    if (value == null) {
+      return Optional.empty();
+    }
+    if (value == ObjectNode.INSTANCE) {
+      if (type.equals(Object.class)) {
+        return Optional.of(type.cast(value));
+      }
+      throw new JsonPathTypeMismatchException(path.path(), type);
+    }
+    if (type.isInstance(value)) {
+      return Optional.of(type.cast(value));
     }
+    if (type.equals(String.class) && (value instanceof Number || value instanceof Boolean)) {
+      return Optional.of(type.cast(value.toString()));
+    }
+    if (type.equals(Integer.class)) {
+      if (value instanceof Number) {
+        return Optional.of(type.cast(((Number) value).intValue()));
+      }
+      if (value instanceof String) {
+        Integer parsed = Ints.tryParse((String) value);
+        if (parsed != null) {
+          return Optional.of(type.cast(parsed));
+        }
+      }
+    }
+    throw new JsonPathTypeMismatchException(path.path(), type);
   }
 
   public Instant getCreatedTime() {
-    return Instant.parse(this.jsonData.read("$.metadata.created_time"));
+    return Instant.parse(createdTime().orElseThrow());
+  }
+
+  /**
+   * Reads the created time without parsing the whole document, if it has not been parsed yet. This
+   * keeps callers that only look at metadata, like applicant lookups and merges, from building the
+   * full path map.
+   */
+  private Optional<String> createdTime() {
+    if (unparsedJson != null) {
+      return scanString(unparsedJson, CREATED_TIME_PATH);
+    }
+    return readString(CREATED_TIME_PATH);
+  }
+
+  /**
+   * Finds the scalar at {@code path} in {@code json} with a streaming parser, skipping over every
+   * subtree not on the path.
+   */
+  private static Optional<String> scanString(String json, Path path) {
+    try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return Optional.empty();
+      }
+      int segment = 0;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (!fieldName.equals(path.segments().get(segment))) {
+          parser.skipChildren();
+          continue;
+        }
+        if (segment == path.segments().size() - 1) {
+          return token.isScalarValue() && token != JsonToken.VALUE_NULL
+              ? Optional.of(parser.getText())
+              : Optional.empty();
+        }
+        if (token != JsonToken.START_OBJECT) {
+          return Optional.empty();
+        }
+        segment++;
+      }
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   public void setCreatedTime(Instant i) {
-    this.jsonData.put("$.metadata", "created_time", i.toString());
+    put(CREATED_TIME_PATH, i.toString());
   }
 
   public String asJsonString() {
-    return this.jsonData.jsonString();
+    if (unparsedJson != null) {
+      // Nothing has been read or changed, so the original JSON is still current.
+      return unparsedJson;
+    }
+    try {
+      return MAPPER.writeValueAsString(toJsonObject());
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Serializes the value at {@code path} to JSON. Objects are serialized with everything nested
+   * below them; a missing path serializes to {@code null}.
+   */
+  public String asJsonString(Path path) {
+    Object value = nodes().get(path);
+    try {
+      return MAPPER.writeValueAsString(value == ObjectNode.INSTANCE ? toJsonObject(path) : value);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Rebuilds the nested JSON object structure from {@link #nodes}. */
+  private LinkedHashMap<String, Object> toJsonObject() {
+    return toJsonObject(Path.empty());
+  }
+
+  /** Rebuilds the nested JSON structure of everything in {@link #nodes} below {@code root}. */
+  private LinkedHashMap<String, Object> toJsonObject(Path root) {
+    LinkedHashMap<String, Object> rootObject = new LinkedHashMap<>();
+    Map<Path, Map<String, Object>> objects = new HashMap<>();
+    objects.put(root, rootObject);
+    for (Map.Entry<Path, Object> node : nodes().entrySet()) {
+      if (node.getKey().equals(root) || !node.getKey().startsWith(root)) {
+        continue;
+      }
+      Map<String, Object> parent = objects.get(node.getKey().parentPath());
+      if (node.getValue() == ObjectNode.INSTANCE) {
+        LinkedHashMap<String, Object> object = new LinkedHashMap<>();
+        objects.put(node.getKey(), object);
+        parent.put(node.getKey().keyName(), object);
+      } else {
+        parent.put(node.getKey().keyName(), node.getValue());
+      }
+    }
+    return rootObject;
+  }
+
+  private static Map<String, Object> parse(String jsonData) {
+    try {
+      return MAPPER.readValue(jsonData, JSON_OBJECT_TYPE);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   @Override
   public boolean equals(@Nullable Object object) {
+    if (object == this) {
+      return true;
+    }
     if (object instanceof ApplicantData) {
       ApplicantData that = (ApplicantData) object;
-      // Need to compare the JSON strings rather than the DocumentContexts themselves since
-      // DocumentContext does not override equals.
-      return this.jsonData.jsonString().equals(that.jsonData.jsonString());
+      // Different digests rule equality out cheaply; matching ones are confirmed against the
+      // cached canonical JSON, so a collision never makes different data equal.
+      return this.digest().equals(that.digest())
+          && Arrays.equals(this.canonicalJson(), that.canonicalJson());
     }
     return false;
   }
@@ -158,50 +444,93 @@ public class ApplicantData {
 
   @Override
   public int hashCode() {
-    return Objects.hash(jsonData.jsonString());
+    return digest().asInt();
+  }
+
+  /**
+   * A digest of the document's canonical JSON, in which object keys are sorted, so that documents
+   * with the same structure and values are equal regardless of key order. Cached until the data
+   * changes.
+   */
+  private HashCode digest() {
+    if (digest == null) {
+      digest = Hashing.murmur3_128().hashBytes(canonicalJson());
+    }
+    return digest;
+  }
+
+  /** The document as JSON with object keys sorted. Cached until the data changes. */
+  private byte[] canonicalJson() {
+    if (canonicalJson == null) {
+      try {
+        Object canonical = unparsedJson != null ? parse(unparsedJson) : toJsonObject();
+        canonicalJson = CANONICAL_MAPPER.writeValueAsBytes(canonical);
+      } catch (JsonProcessingException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return canonicalJson;
   }
 
   /**
    * Copies all keys from {@code other}, recursively. All lists are merged. No values will be
    * overwritten.
    *
+   * <p>Both documents are walked together in a single pass over {@code other}, in document order.
+   * Subtrees missing here are copied across whole. Where one document has an object and the other a
+   * value, the path is a conflict and nothing below it is merged. Lists are merged as a union that
+   * keeps the existing order and appends only items not already present, so merging the same
+   * repeated answers twice does not duplicate them.
+   *
    * @return A list of {@code Path}s whose values could not be copied due to conflicts.
    */
   public ImmutableList<Path> mergeFrom(ApplicantData other) {
-    Map<?, ?> rootAsMap = other.jsonData.read("$", Map.class);
-    return mergeFrom(Path.empty(), rootAsMap);
-  }
-
-  private ImmutableList<Path> mergeFrom(Path rootKey, Map<?, ?> other) {
     ImmutableList.Builder<Path> pathsRemoved = new ImmutableList.Builder<>();
-    for (Map.Entry<?, ?> entry : other.entrySet()) {
-      String key = entry.getKey().toString();
-      Path path = rootKey.toBuilder().append(key).build();
-      if (hasPath(path)) {
-        if (entry.getValue() instanceof Map) {
-          // Recurse into maps.
-          pathsRemoved.addAll(mergeFrom(path, (Map) entry.getValue()));
-        } else if (entry.getValue() instanceof List) {
-          // Add items from lists.
-          // TODO(github.com/seattle-uat/civiform/issues/405): improve merge for repeated fields.
-          for (Object item : (List) entry.getValue()) {
-            this.jsonData.add(path.path(), item);
-          }
-        } else {
-          try {
-            if (!this.read(path, Object.class).equals(entry.getValue())) {
-              pathsRemoved.add(path);
-            }
-          } catch (JsonPathTypeMismatchException e) {
-            // If we can't confirm they're equal, consider it removed.
-            pathsRemoved.add(path);
-          }
+    // The root of the subtree currently being copied across whole or skipped, if any.
+    Optional<Path> copying = Optional.empty();
+    Optional<Path> skipping = Optional.empty();
+
+    for (Map.Entry<Path, Object> entry : other.nodes().entrySet()) {
+      Path path = entry.getKey();
+      Object theirs = entry.getValue();
+      if (copying.isPresent() && path.startsWith(copying.get())) {
+        nodes().put(path, copyValue(theirs));
+        continue;
+      }
+      if (skipping.isPresent() && path.startsWith(skipping.get())) {
+        continue;
+      }
+      copying = Optional.empty();
+      skipping = Optional.empty();
+
+      Object ours = nodes().get(path);
+      if (ours == null) {
+        // Currently empty, can add.
+        nodes().put(path, copyValue(theirs));
+        markDirty(path);
+        if (theirs == ObjectNode.INSTANCE) {
+          copying = Optional.of(path);
         }
-      } else {
-        // currently empty, can add.
-        this.put(path, entry.getValue());
+      } else if (ours == ObjectNode.INSTANCE || theirs == ObjectNode.INSTANCE) {
+        if (ours != theirs) {
+          pathsRemoved.add(path);
+          skipping = Optional.of(path);
+        }
+      } else if (ours instanceof List && theirs instanceof List) {
+        LinkedHashSet<Object> union = new LinkedHashSet<>((List<?>) ours);
+        if (union.addAll((List<?>) theirs)) {
+          nodes().put(path, new ArrayList<>(union));
+          markDirty(path);
+        }
+      } else if (!Objects.equals(ours, theirs)) {
+        pathsRemoved.add(path);
       }
     }
     return pathsRemoved.build();
   }
+
+  /** Copies mutable values so that merged documents do not share them. */
+  private static Object copyValue(Object value) {
+    return value instanceof List ? new ArrayList<>((List<?>) value) : value;
+  }
 }
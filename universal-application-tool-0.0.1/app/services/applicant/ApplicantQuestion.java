@@ -4,8 +4,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableSet;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import services.Path;
 import services.question.AddressQuestionDefinition;
 import services.question.NameQuestionDefinition;
@@ -130,45 +128,19 @@ public class ApplicantQuestion {
     }
 
     public ImmutableSet<ValidationErrorMessage> getStreetErrors() {
-      if (hasStreetValue() && getStreetValue().get().isEmpty()) {
-        return ImmutableSet.of(ValidationErrorMessage.create("Street is required."));
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.STREET.getErrors(getStreetValue());
     }
 
     public ImmutableSet<ValidationErrorMessage> getCityErrors() {
-      if (hasCityValue() && getCityValue().get().isEmpty()) {
-        return ImmutableSet.of(ValidationErrorMessage.create("City is required."));
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.CITY.getErrors(getCityValue());
     }
 
     public ImmutableSet<ValidationErrorMessage> getStateErrors() {
-      // TODO: Validate state further.
-      if (hasStateValue() && getStateValue().get().isEmpty()) {
-        return ImmutableSet.of(ValidationErrorMessage.create("State is required."));
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.STATE.getErrors(getStateValue());
     }
 
     public ImmutableSet<ValidationErrorMessage> getZipErrors() {
-      if (hasZipValue()) {
-        String zipValue = getZipValue().get();
-        if (zipValue.isEmpty()) {
-          return ImmutableSet.of(ValidationErrorMessage.create("Zip code is required."));
-        }
-
-        Pattern pattern = Pattern.compile("^[0-9]{5}(?:-[0-9]{4})?$");
-        Matcher matcher = pattern.matcher(zipValue);
-        if (!matcher.matches()) {
-          return ImmutableSet.of(ValidationErrorMessage.create("Invalid zip code."));
-        }
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.ZIP_CODE.getErrors(getZipValue());
     }
 
     public boolean hasStreetValue() {
@@ -268,30 +240,9 @@ public class ApplicantQuestion {
     }
 
     public ImmutableSet<ValidationErrorMessage> getQuestionErrors() {
-      if (!hasValue()) {
-        return ImmutableSet.of();
-      }
-
       TextQuestionDefinition definition = getQuestionDefinition();
-      int textLength = getTextValue().map(s -> s.length()).orElse(0);
-      ImmutableSet.Builder<ValidationErrorMessage> errors =
-          ImmutableSet.<ValidationErrorMessage>builder();
-
-      if (definition.getMinLength().isPresent()) {
-        int minLength = definition.getMinLength().getAsInt();
-        if (textLength < minLength) {
-          errors.add(ValidationErrorMessage.textTooShortError(minLength));
-        }
-      }
-
-      if (definition.getMaxLength().isPresent()) {
-        int maxLength = definition.getMaxLength().getAsInt();
-        if (textLength > maxLength) {
-          errors.add(ValidationErrorMessage.textTooLongError(maxLength));
-        }
-      }
-
-      return errors.build();
+      return ScalarValidation.length(definition.getMinLength(), definition.getMaxLength())
+          .getErrors(getTextValue());
     }
 
     @Override
@@ -366,19 +317,11 @@ public class ApplicantQuestion {
     }
 
     public ImmutableSet<ValidationErrorMessage> getFirstNameErrors() {
-      if (hasFirstNameValue() && getFirstNameValue().get().isEmpty()) {
-        return ImmutableSet.of(ValidationErrorMessage.create("First name is required."));
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.FIRST_NAME.getErrors(getFirstNameValue());
     }
 
     public ImmutableSet<ValidationErrorMessage> getLastNameErrors() {
-      if (hasLastNameValue() && getLastNameValue().get().isEmpty()) {
-        return ImmutableSet.of(ValidationErrorMessage.create("Last name is required."));
-      }
-
-      return ImmutableSet.of();
+      return ScalarValidation.LAST_NAME.getErrors(getLastNameValue());
     }
 
     public boolean hasFirstNameValue() {
@@ -1,10 +1,16 @@
 package services.applicant;
 
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.concurrent.CompletionStage;
 import models.Applicant;
 import services.ErrorAnd;
+import services.program.Column;
 
 /**
  * The service responsible for accessing the Applicant resource. Applicants can view program
@@ -37,6 +43,35 @@ public interface ApplicantService {
   CompletionStage<ErrorAnd<ReadOnlyApplicantProgramService, Exception>> stageAndUpdateIfValid(
       long applicantId, long programId, long blockId, ImmutableMap<String, String> updateMap);
 
+  /**
+   * Gets the given applicants in a single round trip, keyed by id. Ids with no matching applicant
+   * are absent from the returned map.
+   */
+  CompletionStage<ImmutableMap<Long, Applicant>> getApplicants(ImmutableSet<Long> applicantIds);
+
+  /**
+   * Streams every applicant in id order, loading a page at a time, for processing all applicants
+   * without holding them all in memory.
+   */
+  Source<Applicant, NotUsed> streamApplicants();
+
+  /**
+   * Splits the applicant ids into consecutive ranges of {@code partitionSize} ids, emitted in order
+   * as the pair of each range's first and last id, so that the ranges can be loaded with {@link
+   * #listApplicantsInIdRange} and processed in parallel.
+   */
+  Source<Pair<Long, Long>, NotUsed> partitionApplicantIds(int partitionSize);
+
+  /** Loads the applicants whose ids are from {@code firstId} to {@code lastId}, in id order. */
+  CompletionStage<ImmutableList<Applicant>> listApplicantsInIdRange(long firstId, long lastId);
+
+  /**
+   * Streams every applicant as a row of CSV with the given columns, after a row of their headers.
+   * The values are extracted and formatted by the database, so this is much cheaper than
+   * formatting {@link #streamApplicants()} for large exports.
+   */
+  Source<ByteString, NotUsed> streamApplicantsAsCsv(ImmutableList<Column> columns);
+
   /** Creates a new {@link models.Applicant} at for latest application version for a given user. */
   CompletionStage<Applicant> createApplicant(long userId);
 
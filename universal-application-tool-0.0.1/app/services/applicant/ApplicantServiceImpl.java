@@ -2,18 +2,29 @@ package services.applicant;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import models.Applicant;
 import play.libs.concurrent.HttpExecutionContext;
 import repository.ApplicantRepository;
 import services.ErrorAnd;
 import services.Path;
 import services.program.BlockDefinition;
+import services.program.Column;
 import services.program.PathNotInBlockException;
 import services.program.ProgramBlockNotFoundException;
 import services.program.ProgramDefinition;
@@ -21,12 +32,40 @@ import services.program.ProgramService;
 import services.question.ScalarType;
 import services.question.UnsupportedScalarTypeException;
 
+@Singleton
 public class ApplicantServiceImpl implements ApplicantService {
 
   private final ApplicantRepository applicantRepository;
   private final ProgramService programService;
   private final HttpExecutionContext httpExecutionContext;
 
+  /**
+   * The data of applicants this node has recently written or loaded, by applicant id, so the
+   * page shown right after an applicant saves a block does not load the applicant again. An entry
+   * is served only while the applicant's stored version still matches it, which catches writes
+   * made by other nodes. Bounded and short-lived, since it is only there for that next request.
+   */
+  private final Cache<Long, CachedApplicant> applicantCache =
+      CacheBuilder.newBuilder().maximumSize(10_000).expireAfterWrite(1, TimeUnit.MINUTES).build();
+
+  /** A copy of an applicant's data and the stored version it was taken at. */
+  private static final class CachedApplicant {
+    final long version;
+    final Locale preferredLocale;
+    final String json;
+
+    CachedApplicant(Applicant applicant) {
+      this.version = applicant.getVersion();
+      this.preferredLocale = applicant.getApplicantData().preferredLocale();
+      this.json = applicant.getApplicantData().asJsonString();
+    }
+
+    /** Each caller gets its own {@link ApplicantData}, since it is mutable. */
+    ApplicantData toApplicantData() {
+      return new ApplicantData(preferredLocale, json);
+    }
+  }
+
   @Inject
   public ApplicantServiceImpl(
       ApplicantRepository applicantRepository,
@@ -71,12 +110,26 @@ public class ApplicantServiceImpl implements ApplicantService {
                   new ReadOnlyApplicantProgramServiceImpl(
                       applicant.getApplicantData(), programDefinition);
 
-              Optional<Block> blockMaybe = roApplicantProgramService.getBlock(blockId);
-              if (!blockMaybe.get().hasErrors()) {
+              // The answers are validated even if they hide their own block, since a later answer
+              // may show it again.
+              BlockDefinition blockDefinition = programDefinition.getBlockDefinition(blockId).get();
+              Block block = new Block(blockId, blockDefinition, applicant.getApplicantData());
+              if (!block.hasErrors()) {
+                // Submitting a block without any answers only completes it if it is optional, and
+                // submitting a block that is now hidden, which the applicant was not shown, never
+                // does.
+                if ((!updates.isEmpty() || block.isOptional())
+                    && roApplicantProgramService.getBlock(blockId).isPresent()) {
+                  BlockCompletion.markComplete(
+                      applicant.getApplicantData(), programDefinition.id(), blockDefinition);
+                }
                 return applicantRepository
                     .updateApplicant(applicant)
                     .thenApplyAsync(
-                        (finishedSaving) -> ErrorAnd.of(roApplicantProgramService),
+                        (finishedSaving) -> {
+                          applicantCache.put(applicant.id, new CachedApplicant(applicant));
+                          return ErrorAnd.of(roApplicantProgramService);
+                        },
                         httpExecutionContext.current());
               }
 
@@ -97,6 +150,33 @@ public class ApplicantServiceImpl implements ApplicantService {
     return stageAndUpdateIfValid(applicantId, programId, blockId, updates);
   }
 
+  @Override
+  public CompletionStage<ImmutableMap<Long, Applicant>> getApplicants(
+      ImmutableSet<Long> applicantIds) {
+    return applicantRepository.lookupApplicants(applicantIds);
+  }
+
+  @Override
+  public Source<Applicant, NotUsed> streamApplicants() {
+    return applicantRepository.streamApplicants();
+  }
+
+  @Override
+  public Source<Pair<Long, Long>, NotUsed> partitionApplicantIds(int partitionSize) {
+    return applicantRepository.partitionApplicantIds(partitionSize);
+  }
+
+  @Override
+  public CompletionStage<ImmutableList<Applicant>> listApplicantsInIdRange(
+      long firstId, long lastId) {
+    return applicantRepository.listApplicantsInIdRange(firstId, lastId);
+  }
+
+  @Override
+  public Source<ByteString, NotUsed> streamApplicantsAsCsv(ImmutableList<Column> columns) {
+    return applicantRepository.streamApplicantsAsCsv(columns);
+  }
+
   @Override
   public CompletionStage<Applicant> createApplicant(long userId) {
     Applicant applicant = new Applicant();
@@ -106,23 +186,50 @@ public class ApplicantServiceImpl implements ApplicantService {
   @Override
   public CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       long applicantId, long programId) {
-    CompletableFuture<Optional<Applicant>> applicantCompletableFuture =
-        applicantRepository.lookupApplicant(applicantId).toCompletableFuture();
+    CompletableFuture<ApplicantData> applicantDataCompletableFuture =
+        lookupApplicantData(applicantId).toCompletableFuture();
     CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
         programService.getProgramDefinitionAsync(programId).toCompletableFuture();
 
-    return CompletableFuture.allOf(applicantCompletableFuture, programDefinitionCompletableFuture)
+    return CompletableFuture.allOf(
+            applicantDataCompletableFuture, programDefinitionCompletableFuture)
         .thenApplyAsync(
-            (v) -> {
-              Applicant applicant = applicantCompletableFuture.join().get();
-              ProgramDefinition programDefinition = programDefinitionCompletableFuture.join();
-
-              return new ReadOnlyApplicantProgramServiceImpl(
-                  applicant.getApplicantData(), programDefinition);
-            },
+            (v) ->
+                new ReadOnlyApplicantProgramServiceImpl(
+                    applicantDataCompletableFuture.join(),
+                    programDefinitionCompletableFuture.join()),
             httpExecutionContext.current());
   }
 
+  /**
+   * Serves the applicant's data from {@link #applicantCache} if the stored version still matches,
+   * which only reads the version, and otherwise loads and caches the applicant.
+   */
+  private CompletionStage<ApplicantData> lookupApplicantData(long applicantId) {
+    CachedApplicant cached = applicantCache.getIfPresent(applicantId);
+    if (cached == null) {
+      return loadApplicantData(applicantId);
+    }
+    return applicantRepository
+        .lookupApplicantVersion(applicantId)
+        .thenCompose(
+            version ->
+                version.isPresent() && version.get() == cached.version
+                    ? CompletableFuture.completedFuture(cached.toApplicantData())
+                    : loadApplicantData(applicantId));
+  }
+
+  private CompletionStage<ApplicantData> loadApplicantData(long applicantId) {
+    return applicantRepository
+        .lookupApplicant(applicantId)
+        .thenApply(
+            applicantMaybe -> {
+              Applicant applicant = applicantMaybe.get();
+              applicantCache.put(applicant.id, new CachedApplicant(applicant));
+              return applicant.getApplicantData();
+            });
+  }
+
   /** In-place update of {@link Applicant}'s data. */
   private void stageUpdates(
       Applicant applicant,
@@ -21,7 +21,7 @@ public final class Block {
   private final ApplicantData applicantData;
   // TODO: Make Block an AutoValue instead of implementing our own memoization.
   private Optional<ImmutableList<ApplicantQuestion>> questionsMemo = Optional.empty();
-  private Optional<Boolean> errorsMemo = Optional.empty();
+  private Optional<BlockValidationResult> validationMemo = Optional.empty();
 
   Block(long id, BlockDefinition blockDefinition, ApplicantData applicantData) {
     this.id = id;
@@ -33,6 +33,10 @@ public final class Block {
     return id;
   }
 
+  BlockDefinition getBlockDefinition() {
+    return blockDefinition;
+  }
+
   public String getName() {
     return blockDefinition.name();
   }
@@ -55,12 +59,34 @@ public final class Block {
     return questionsMemo.get();
   }
 
+  /**
+   * True if the block's optional predicate holds for the applicant. An optional block may be left
+   * blank: empty answers are not validated, and submitting it without answers completes it.
+   */
+  public boolean isOptional() {
+    return blockDefinition
+        .optionalPredicate()
+        .map(predicate -> CompiledPredicate.forPredicate(predicate).evaluate(applicantData))
+        .orElse(false);
+  }
+
   public boolean hasErrors() {
-    if (errorsMemo.isEmpty()) {
-      this.errorsMemo =
-          getQuestions().stream().map(ApplicantQuestion::hasErrors).reduce(Boolean::logicalOr);
+    return getValidationResult().hasErrors();
+  }
+
+  /**
+   * Validates the applicant's answers for this block with the block definition's compiled {@link
+   * BlockValidationPlan}. A block without questions has no errors, and neither do the empty answers
+   * of an {@link #isOptional optional} block.
+   */
+  public BlockValidationResult getValidationResult() {
+    if (validationMemo.isEmpty()) {
+      this.validationMemo =
+          Optional.of(
+              BlockValidationPlan.forBlockDefinition(blockDefinition)
+                  .validate(applicantData, isOptional()));
     }
-    return errorsMemo.get();
+    return validationMemo.get();
   }
 
   @Override
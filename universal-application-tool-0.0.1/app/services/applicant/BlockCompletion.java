@@ -0,0 +1,83 @@
+package services.applicant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import services.Path;
+import services.program.BlockDefinition;
+import services.program.ProgramQuestionDefinition;
+import services.question.QuestionDefinition;
+
+/**
+ * Records which blocks of a program an applicant has completed, in the applicant's metadata, so
+ * finding the first incomplete block is a lookup per block rather than a validation of every
+ * answer.
+ *
+ * <p>A completed block is stored at {@code metadata.block_completion.<program id>.<block id>} as a
+ * fingerprint of the block's questions. Each program version has its own id, and the fingerprint
+ * changes whenever the block's questions do, so a record only counts for the block it was made
+ * for.
+ */
+final class BlockCompletion {
+  private static final Path COMPLETION_PATH = Path.create("metadata.block_completion");
+
+  /**
+   * Fingerprints by block definition. Keys are weak, and so compared by identity, as for {@link
+   * BlockValidationPlan}.
+   */
+  private static final LoadingCache<BlockDefinition, String> FINGERPRINTS =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(
+              new CacheLoader<BlockDefinition, String>() {
+                @Override
+                public String load(BlockDefinition blockDefinition) {
+                  return computeFingerprint(blockDefinition);
+                }
+              });
+
+  private BlockCompletion() {}
+
+  /** Records that the applicant has completed the block as it is currently defined. */
+  static void markComplete(
+      ApplicantData applicantData, long programId, BlockDefinition blockDefinition) {
+    applicantData.putString(
+        path(programId, blockDefinition.id()), FINGERPRINTS.getUnchecked(blockDefinition));
+  }
+
+  /** True if the applicant has completed the block as it is currently defined. */
+  static boolean isComplete(
+      ApplicantData applicantData, long programId, BlockDefinition blockDefinition) {
+    return applicantData
+        .readString(path(programId, blockDefinition.id()))
+        .map(FINGERPRINTS.getUnchecked(blockDefinition)::equals)
+        .orElse(false);
+  }
+
+  private static Path path(long programId, long blockId) {
+    return COMPLETION_PATH
+        .toBuilder()
+        .append(String.valueOf(programId))
+        .append(String.valueOf(blockId))
+        .build();
+  }
+
+  /**
+   * Hashes the id, path and type of each of the block's questions, in order. Unlike {@code
+   * hashCode}, this is the same on every server and across restarts.
+   */
+  private static String computeFingerprint(BlockDefinition blockDefinition) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (ProgramQuestionDefinition programQuestion : blockDefinition.programQuestionDefinitions()) {
+      QuestionDefinition question = programQuestion.getQuestionDefinition();
+      hasher.putLong(question.getId());
+      hasher.putString(question.getPath().path(), UTF_8);
+      hasher.putString(question.getQuestionType().name(), UTF_8);
+    }
+    return hasher.hash().toString();
+  }
+}
@@ -0,0 +1,109 @@
+package services.applicant;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import services.Path;
+import services.program.BlockDefinition;
+import services.program.ProgramQuestionDefinition;
+import services.question.AddressQuestionDefinition;
+import services.question.NameQuestionDefinition;
+import services.question.QuestionDefinition;
+import services.question.TextQuestionDefinition;
+
+/**
+ * The validation for a {@link BlockDefinition}, compiled into a flat list of scalar paths and the
+ * {@link ScalarValidation} for each. Validating a block then reads each answer once and runs its
+ * checks, without building a question object per question or an error set per field.
+ */
+final class BlockValidationPlan {
+
+  /**
+   * Plans by block definition. Keys are weak, and so compared by identity: block definitions
+   * belong to cached, immutable program definitions, so a plan is compiled once per block of each
+   * program version and dropped along with it.
+   */
+  private static final LoadingCache<BlockDefinition, BlockValidationPlan> PLANS =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(
+              new CacheLoader<BlockDefinition, BlockValidationPlan>() {
+                @Override
+                public BlockValidationPlan load(BlockDefinition blockDefinition) {
+                  return compile(blockDefinition);
+                }
+              });
+
+  private final ImmutableList<Path> paths;
+  private final ImmutableList<ScalarValidation> validations;
+
+  private BlockValidationPlan(
+      ImmutableList<Path> paths, ImmutableList<ScalarValidation> validations) {
+    this.paths = paths;
+    this.validations = validations;
+  }
+
+  /** Returns the plan for the block, compiling it the first time it is needed. */
+  static BlockValidationPlan forBlockDefinition(BlockDefinition blockDefinition) {
+    return PLANS.getUnchecked(blockDefinition);
+  }
+
+  private static BlockValidationPlan compile(BlockDefinition blockDefinition) {
+    ImmutableList.Builder<Path> paths = ImmutableList.builder();
+    ImmutableList.Builder<ScalarValidation> validations = ImmutableList.builder();
+    for (ProgramQuestionDefinition programQuestion : blockDefinition.programQuestionDefinitions()) {
+      QuestionDefinition question = programQuestion.getQuestionDefinition();
+      switch (question.getQuestionType()) {
+        case ADDRESS:
+          AddressQuestionDefinition address = (AddressQuestionDefinition) question;
+          paths.add(address.getStreetPath()).add(address.getCityPath());
+          paths.add(address.getStatePath()).add(address.getZipPath());
+          validations.add(ScalarValidation.STREET).add(ScalarValidation.CITY);
+          validations.add(ScalarValidation.STATE).add(ScalarValidation.ZIP_CODE);
+          break;
+        case NAME:
+          NameQuestionDefinition name = (NameQuestionDefinition) question;
+          paths.add(name.getFirstNamePath()).add(name.getLastNamePath());
+          validations.add(ScalarValidation.FIRST_NAME).add(ScalarValidation.LAST_NAME);
+          break;
+        case TEXT:
+          TextQuestionDefinition text = (TextQuestionDefinition) question;
+          ScalarValidation length =
+              ScalarValidation.length(text.getMinLength(), text.getMaxLength());
+          if (!length.isEmpty()) {
+            paths.add(text.getTextPath());
+            validations.add(length);
+          }
+          break;
+      }
+    }
+    return new BlockValidationPlan(paths.build(), validations.build());
+  }
+
+  /**
+   * Runs every check against the applicant's answers. If the block is optional, empty answers are
+   * not checked, so required answers may be left blank.
+   */
+  BlockValidationResult validate(ApplicantData applicantData, boolean optional) {
+    ImmutableSet.Builder<Path> invalidPaths = null;
+    for (int i = 0; i < paths.size(); i++) {
+      Path path = paths.get(i);
+      Optional<String> answer = applicantData.readString(path);
+      if (optional && answer.map(String::isEmpty).orElse(true)) {
+        continue;
+      }
+      if (validations.get(i).hasErrors(answer)) {
+        if (invalidPaths == null) {
+          invalidPaths = ImmutableSet.builder();
+        }
+        invalidPaths.add(path);
+      }
+    }
+    return invalidPaths == null
+        ? BlockValidationResult.VALID
+        : new BlockValidationResult(invalidPaths.build());
+  }
+}
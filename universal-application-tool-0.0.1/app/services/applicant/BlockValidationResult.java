@@ -0,0 +1,24 @@
+package services.applicant;
+
+import com.google.common.collect.ImmutableSet;
+import services.Path;
+
+/** The outcome of validating one {@link Block} against the applicant's answers. */
+public final class BlockValidationResult {
+  static final BlockValidationResult VALID = new BlockValidationResult(ImmutableSet.of());
+
+  private final ImmutableSet<Path> invalidPaths;
+
+  BlockValidationResult(ImmutableSet<Path> invalidPaths) {
+    this.invalidPaths = invalidPaths;
+  }
+
+  public boolean hasErrors() {
+    return !invalidPaths.isEmpty();
+  }
+
+  /** The scalar paths whose answers failed validation. */
+  public ImmutableSet<Path> getInvalidPaths() {
+    return invalidPaths;
+  }
+}
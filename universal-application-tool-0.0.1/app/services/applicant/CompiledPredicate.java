@@ -0,0 +1,213 @@
+package services.applicant;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import services.Path;
+import services.program.Predicate;
+
+/**
+ * A {@link Predicate} compiled for evaluation against {@link ApplicantData}.
+ *
+ * <p>The expression is parsed into a {@link JsonPath} once, and the applicant data it reads is
+ * worked out up front: the definite prefix after each {@code $}, e.g. {@code applicant.kids} for
+ * {@code $.applicant.kids[?(@.age < 5)]}. Evaluating the predicate serializes only the values at
+ * those paths, and results are cached keyed on those values, so the expression itself only runs
+ * for answers it has not seen before. Predicates that read the whole document are not cached,
+ * since every applicant's document is a different key, and a large one.
+ *
+ * <p>A predicate holds if its expression matches anything other than {@code null}, {@code false}
+ * or an empty list. An expression that is not a valid JsonPath never holds.
+ */
+final class CompiledPredicate {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final CompiledPredicate NEVER =
+      new CompiledPredicate(Optional.empty(), ImmutableList.of());
+
+  /**
+   * Compiled predicates by expression, so each predicate of a program version is compiled once,
+   * and predicates carried over to a new version are not compiled again. Bounded, since
+   * expressions are admin-defined.
+   */
+  private static final LoadingCache<Predicate, CompiledPredicate> COMPILED =
+      CacheBuilder.newBuilder()
+          .maximumSize(10_000)
+          .build(
+              new CacheLoader<Predicate, CompiledPredicate>() {
+                @Override
+                public CompiledPredicate load(Predicate predicate) {
+                  return compile(predicate.expression());
+                }
+              });
+
+  private final Optional<JsonPath> jsonPath;
+  private final ImmutableList<Path> paths;
+  /** Results keyed on the JSON values at {@link #paths}, in order. */
+  private final Cache<ImmutableList<String>, Boolean> results =
+      CacheBuilder.newBuilder().maximumSize(1_000).build();
+  /** False if any of {@link #paths} is the whole document, so {@link #results} is not used. */
+  private final boolean cacheResults;
+
+  private CompiledPredicate(Optional<JsonPath> jsonPath, ImmutableList<Path> paths) {
+    this.jsonPath = jsonPath;
+    this.paths = paths;
+    this.cacheResults = paths.stream().noneMatch(path -> path.segments().isEmpty());
+  }
+
+  /** Returns the compiled form of the predicate, compiling it the first time it is needed. */
+  static CompiledPredicate forPredicate(Predicate predicate) {
+    return COMPILED.getUnchecked(predicate);
+  }
+
+  /** The applicant data paths the predicate reads. The empty path stands for the whole document. */
+  ImmutableList<Path> getPaths() {
+    return paths;
+  }
+
+  /** True if the predicate holds for the applicant's data. */
+  boolean evaluate(ApplicantData applicantData) {
+    if (jsonPath.isEmpty()) {
+      return false;
+    }
+    ImmutableList<String> values =
+        paths.stream()
+            .map(
+                path ->
+                    path.segments().isEmpty()
+                        ? applicantData.asJsonString()
+                        : applicantData.asJsonString(path))
+            .collect(toImmutableList());
+    if (!cacheResults) {
+      return run(values);
+    }
+    Boolean result = results.getIfPresent(values);
+    if (result == null) {
+      result = run(values);
+      results.put(values, result);
+    }
+    return result;
+  }
+
+  private static CompiledPredicate compile(String expression) {
+    String normalized = expression.trim();
+    // JsonPath treats a path without a root as relative to the root.
+    if (!normalized.startsWith("$") && !normalized.startsWith("@")) {
+      normalized = "$." + normalized;
+    }
+    try {
+      return new CompiledPredicate(
+          Optional.of(JsonPath.compile(normalized)), referencedPaths(normalized));
+    } catch (InvalidPathException | IllegalArgumentException e) {
+      return NEVER;
+    }
+  }
+
+  /**
+   * The definite prefix after each {@code $} in the expression, without any that are nested in
+   * another, since their values are read along with it.
+   */
+  private static ImmutableList<Path> referencedPaths(String expression) {
+    if (expression.startsWith("@")) {
+      return ImmutableList.of(Path.empty());
+    }
+    List<Path> prefixes = new ArrayList<>();
+    for (int i = expression.indexOf('$'); i >= 0; i = expression.indexOf('$', i + 1)) {
+      prefixes.add(definitePrefix(expression, i + 1));
+    }
+    return prefixes.stream()
+        .distinct()
+        .filter(
+            path ->
+                prefixes.stream().noneMatch(other -> !other.equals(path) && path.startsWith(other)))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * The dotted property names starting at {@code start}, up to the first bracket, wildcard, deep
+   * scan or function call.
+   */
+  private static Path definitePrefix(String expression, int start) {
+    List<String> segments = new ArrayList<>();
+    int position = start;
+    while (position < expression.length() && expression.charAt(position) == '.') {
+      int end = position + 1;
+      while (end < expression.length() && isNameCharacter(expression.charAt(end))) {
+        end++;
+      }
+      if (end == position + 1 || (end < expression.length() && expression.charAt(end) == '(')) {
+        break;
+      }
+      segments.add(expression.substring(position + 1, end));
+      position = end;
+    }
+    return segments.isEmpty() ? Path.empty() : Path.create(String.join(".", segments));
+  }
+
+  private static boolean isNameCharacter(char c) {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+
+  /**
+   * Runs the expression against a document holding only the values at {@link #paths}, each nested
+   * at its own path.
+   */
+  private boolean run(ImmutableList<String> values) {
+    try {
+      Object document;
+      if (paths.size() == 1 && paths.get(0).segments().isEmpty()) {
+        document = MAPPER.readValue(values.get(0), Object.class);
+      } else {
+        Map<String, Object> root = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+          Object value = MAPPER.readValue(values.get(i), Object.class);
+          if (value != null) {
+            put(root, paths.get(i), value);
+          }
+        }
+        document = root;
+      }
+      return isTruthy(jsonPath.get().read(document));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    } catch (JsonPathException e) {
+      // Includes paths that are not present.
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void put(Map<String, Object> root, Path path, Object value) {
+    Map<String, Object> parent = root;
+    for (String segment : path.parentPath().segments()) {
+      parent = (Map<String, Object>) parent.computeIfAbsent(segment, key -> new LinkedHashMap<>());
+    }
+    parent.put(path.keyName(), value);
+  }
+
+  private static boolean isTruthy(Object result) {
+    if (result == null) {
+      return false;
+    }
+    if (result instanceof Boolean) {
+      return (Boolean) result;
+    }
+    if (result instanceof List) {
+      return !((List<?>) result).isEmpty();
+    }
+    return true;
+  }
+}
@@ -5,6 +5,10 @@ package services.applicant;
  * that path.
  */
 public class JsonPathTypeMismatchException extends Exception {
+  public JsonPathTypeMismatchException(String path, Class type) {
+    super(path + " does not have expected type " + type);
+  }
+
   public JsonPathTypeMismatchException(String path, Class type, Throwable cause) {
     super(path + " does not have expected type " + type, cause);
   }
@@ -18,6 +18,6 @@ public interface ReadOnlyApplicantProgramService {
   /** Get the block that comes after the given block if there is one. */
   Optional<Block> getBlockAfter(Block block);
 
-  /** Get the program block with the lowest index that has missing answer data if there is one. */
+  /** Get the program block with the lowest index that the applicant has not yet completed. */
   Optional<Block> getFirstIncompleteBlock();
 }
@@ -4,7 +4,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.util.Optional;
+import services.program.BlockDefinition;
 import services.program.ProgramDefinition;
 
 public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantProgramService {
@@ -12,6 +14,7 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
   private final ApplicantData applicantData;
   private final ProgramDefinition programDefinition;
   private Optional<ImmutableList<Block>> currentBlockList = Optional.empty();
+  private Optional<ImmutableMap<Long, Integer>> currentBlockIndices = Optional.empty();
 
   protected ReadOnlyApplicantProgramServiceImpl(
       ApplicantData applicantData, ProgramDefinition programDefinition) {
@@ -19,6 +22,10 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
     this.programDefinition = checkNotNull(programDefinition);
   }
 
+  /**
+   * The program's blocks, without those whose hide predicate holds for the applicant. Predicates
+   * are evaluated with their {@link CompiledPredicate}.
+   */
   @Override
   public ImmutableList<Block> getCurrentBlockList() {
     if (currentBlockList.isPresent()) {
@@ -27,6 +34,7 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
 
     ImmutableList<Block> blocks =
         programDefinition.blockDefinitions().stream()
+            .filter(blockDefinition -> !isHidden(blockDefinition))
             .map(blockDefinition -> new Block(blockDefinition.id(), blockDefinition, applicantData))
             .collect(toImmutableList());
 
@@ -35,24 +43,39 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
     return blocks;
   }
 
+  /** Finds the block through an index of the current block list rather than scanning it. */
   @Override
   public Optional<Block> getBlock(long blockId) {
-    return getCurrentBlockList().stream().filter((block) -> block.getId() == blockId).findFirst();
+    return getCurrentBlockIndex(blockId).map(getCurrentBlockList()::get);
   }
 
   @Override
   public Optional<Block> getBlockAfter(long blockId) {
     ImmutableList<Block> blocks = getCurrentBlockList();
+    return getCurrentBlockIndex(blockId)
+        .map(index -> index + 1)
+        .filter(index -> index < blocks.size())
+        .map(blocks::get);
+  }
 
-    for (int i = 0; i < blocks.size() - 1; i++) {
-      if (blocks.get(i).getId() != blockId) {
-        continue;
+  /** The position of the block in {@link #getCurrentBlockList}, if it is shown. */
+  private Optional<Integer> getCurrentBlockIndex(long blockId) {
+    if (currentBlockIndices.isEmpty()) {
+      ImmutableList<Block> blocks = getCurrentBlockList();
+      ImmutableMap.Builder<Long, Integer> indices = ImmutableMap.builder();
+      for (int i = 0; i < blocks.size(); i++) {
+        indices.put(blocks.get(i).getId(), i);
       }
-
-      return Optional.of(blocks.get(i + 1));
+      currentBlockIndices = Optional.of(indices.build());
     }
+    return Optional.ofNullable(currentBlockIndices.get().get(blockId));
+  }
 
-    return Optional.empty();
+  private boolean isHidden(BlockDefinition blockDefinition) {
+    return blockDefinition
+        .hidePredicate()
+        .map(predicate -> CompiledPredicate.forPredicate(predicate).evaluate(applicantData))
+        .orElse(false);
   }
 
   @Override
@@ -60,11 +83,17 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
     return getBlockAfter(block.getId());
   }
 
-  // TODO(https://github.com/seattle-uat/universal-application-tool/issues/224): Implement checking
-  // blocks for completion
+  /**
+   * Finds the first block without a {@link BlockCompletion} record for this version of the
+   * program, without validating any answers.
+   */
   @Override
   public Optional<Block> getFirstIncompleteBlock() {
-    ImmutableList<Block> currentBlockList = getCurrentBlockList();
-    return currentBlockList.isEmpty() ? Optional.empty() : Optional.of(currentBlockList.get(0));
+    return getCurrentBlockList().stream()
+        .filter(
+            block ->
+                !BlockCompletion.isComplete(
+                    applicantData, programDefinition.id(), block.getBlockDefinition()))
+        .findFirst();
   }
 }
@@ -0,0 +1,121 @@
+package services.applicant;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.regex.Pattern;
+
+/**
+ * The server-side checks for a single scalar answer. Checks only apply once the applicant has
+ * answered, i.e. once a value is present.
+ *
+ * <p>These are the rules behind both the per-field errors of {@link ApplicantQuestion}'s inner
+ * classes, which renderers display, and the {@link BlockValidationPlan}, which decides whether a
+ * block can be submitted.
+ */
+final class ScalarValidation {
+  private static final int NO_LIMIT = -1;
+  private static final Pattern ZIP_CODE_PATTERN = Pattern.compile("^[0-9]{5}(?:-[0-9]{4})?$");
+
+  static final ScalarValidation NONE =
+      new ScalarValidation(
+          Optional.empty(), Optional.empty(), Optional.empty(), NO_LIMIT, NO_LIMIT);
+  static final ScalarValidation STREET = required("Street is required.");
+  static final ScalarValidation CITY = required("City is required.");
+  // TODO: Validate state further.
+  static final ScalarValidation STATE = required("State is required.");
+  static final ScalarValidation ZIP_CODE =
+      new ScalarValidation(
+          Optional.of(ValidationErrorMessage.create("Zip code is required.")),
+          Optional.of(ZIP_CODE_PATTERN),
+          Optional.of(ValidationErrorMessage.create("Invalid zip code.")),
+          NO_LIMIT,
+          NO_LIMIT);
+  static final ScalarValidation FIRST_NAME = required("First name is required.");
+  static final ScalarValidation LAST_NAME = required("Last name is required.");
+
+  private final Optional<ValidationErrorMessage> requiredMessage;
+  private final Optional<Pattern> pattern;
+  private final Optional<ValidationErrorMessage> patternMessage;
+  private final int minLength;
+  private final int maxLength;
+
+  private ScalarValidation(
+      Optional<ValidationErrorMessage> requiredMessage,
+      Optional<Pattern> pattern,
+      Optional<ValidationErrorMessage> patternMessage,
+      int minLength,
+      int maxLength) {
+    this.requiredMessage = requiredMessage;
+    this.pattern = pattern;
+    this.patternMessage = patternMessage;
+    this.minLength = minLength;
+    this.maxLength = maxLength;
+  }
+
+  /** An answer that may not be empty. */
+  private static ScalarValidation required(String message) {
+    return new ScalarValidation(
+        Optional.of(ValidationErrorMessage.create(message)),
+        Optional.empty(),
+        Optional.empty(),
+        NO_LIMIT,
+        NO_LIMIT);
+  }
+
+  /** An answer whose length must be within the given bounds. */
+  static ScalarValidation length(OptionalInt minLength, OptionalInt maxLength) {
+    if (minLength.isEmpty() && maxLength.isEmpty()) {
+      return NONE;
+    }
+    return new ScalarValidation(
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        minLength.orElse(NO_LIMIT),
+        maxLength.orElse(NO_LIMIT));
+  }
+
+  /** True if there is nothing to check. */
+  boolean isEmpty() {
+    return this == NONE;
+  }
+
+  /** True if the answer fails any check. Does not allocate. */
+  boolean hasErrors(Optional<String> value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    String answer = value.get();
+    if (requiredMessage.isPresent() && answer.isEmpty()) {
+      return true;
+    }
+    if (pattern.isPresent() && !pattern.get().matcher(answer).matches()) {
+      return true;
+    }
+    return (minLength != NO_LIMIT && answer.length() < minLength)
+        || (maxLength != NO_LIMIT && answer.length() > maxLength);
+  }
+
+  /** Returns the messages for every check the answer fails. */
+  ImmutableSet<ValidationErrorMessage> getErrors(Optional<String> value) {
+    if (!hasErrors(value)) {
+      return ImmutableSet.of();
+    }
+    String answer = value.get();
+    if (requiredMessage.isPresent() && answer.isEmpty()) {
+      return ImmutableSet.of(requiredMessage.get());
+    }
+    if (pattern.isPresent() && !pattern.get().matcher(answer).matches()) {
+      return ImmutableSet.of(patternMessage.get());
+    }
+    ImmutableSet.Builder<ValidationErrorMessage> errors = ImmutableSet.builder();
+    if (minLength != NO_LIMIT && answer.length() < minLength) {
+      errors.add(ValidationErrorMessage.textTooShortError(minLength));
+    }
+    if (maxLength != NO_LIMIT && answer.length() > maxLength) {
+      errors.add(ValidationErrorMessage.textTooLongError(maxLength));
+    }
+    return errors.build();
+  }
+}
@@ -2,5 +2,10 @@ package services.program;
 
 public enum ExportEngine {
   PDF,
-  CSV;
+  CSV,
+  /**
+   * A CSV export whose values are extracted by the database, for exporting many applicants at once.
+   * Uses the CSV config.
+   */
+  SQL_CSV;
 }
@@ -1,17 +1,20 @@
 package services.program;
 
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import models.Program;
+import services.Path;
 import services.question.QuestionDefinition;
+import services.question.ScalarType;
 
 @AutoValue
 public abstract class ProgramDefinition {
 
-  private Optional<ImmutableSet<Long>> questionIds = Optional.empty();
-
   public static Builder builder() {
     return new AutoValue_ProgramDefinition.Builder();
   }
@@ -46,7 +49,67 @@ public abstract class ProgramDefinition {
 
   /** Returns the {@link BlockDefinition} with the specified block id if available. */
   public Optional<BlockDefinition> getBlockDefinition(long blockId) {
-    return blockDefinitions().stream().filter(b -> b.id() == blockId).findAny();
+    return getBlockDefinitionIndex(blockId).map(blockDefinitions()::get);
+  }
+
+  /** Returns the index of the block with the specified block id if available. */
+  public Optional<Integer> getBlockDefinitionIndex(long blockId) {
+    return Optional.ofNullable(blockIndicesById().get(blockId));
+  }
+
+  /** Returns the {@link BlockDefinition} after the block with the specified id, if any. */
+  public Optional<BlockDefinition> getBlockDefinitionAfter(long blockId) {
+    return getBlockDefinitionIndex(blockId).flatMap(index -> getBlockDefinition(index + 1));
+  }
+
+  /** Returns the {@link BlockDefinition} before the block with the specified id, if any. */
+  public Optional<BlockDefinition> getBlockDefinitionBefore(long blockId) {
+    return getBlockDefinitionIndex(blockId).flatMap(index -> getBlockDefinition(index - 1));
+  }
+
+  /** Returns the {@link BlockDefinition} that contains the question, if the program has it. */
+  public Optional<BlockDefinition> getBlockDefinitionForQuestion(long questionId) {
+    return Optional.ofNullable(blockDefinitionsByQuestionId().get(questionId));
+  }
+
+  /** The index of each block in {@link #blockDefinitions()}, by block id. */
+  @Memoized
+  ImmutableMap<Long, Integer> blockIndicesById() {
+    ImmutableMap.Builder<Long, Integer> blockIndices = ImmutableMap.builder();
+    for (int i = 0; i < blockDefinitions().size(); i++) {
+      blockIndices.put(blockDefinitions().get(i).id(), i);
+    }
+    return blockIndices.build();
+  }
+
+  /**
+   * The block each question is in, by question id. If a question appears in more than one block,
+   * the first block is used.
+   */
+  @Memoized
+  ImmutableMap<Long, BlockDefinition> blockDefinitionsByQuestionId() {
+    Map<Long, BlockDefinition> blocksByQuestionId = new LinkedHashMap<>();
+    for (BlockDefinition block : blockDefinitions()) {
+      for (ProgramQuestionDefinition question : block.programQuestionDefinitions()) {
+        blocksByQuestionId.putIfAbsent(question.id(), block);
+      }
+    }
+    return ImmutableMap.copyOf(blocksByQuestionId);
+  }
+
+  /** The {@link ScalarType} of every scalar path across all of the program's blocks. */
+  @Memoized
+  public ImmutableMap<Path, ScalarType> scalarTypes() {
+    Map<Path, ScalarType> scalarTypes = new LinkedHashMap<>();
+    for (BlockDefinition block : blockDefinitions()) {
+      block.scalarTypes().forEach(scalarTypes::putIfAbsent);
+    }
+    return ImmutableMap.copyOf(scalarTypes);
+  }
+
+  /** Returns the {@link ScalarType} of a scalar path in any of the program's blocks. */
+  public Optional<ScalarType> getScalarType(Path path) {
+    return Optional.ofNullable(scalarTypes().get(path));
   }
 
   public int getBlockCount() {
@@ -64,18 +127,7 @@ public abstract class ProgramDefinition {
 
   /** True if a question with the given questionId is in the program. */
   public boolean hasQuestion(long questionId) {
-    if (questionIds.isEmpty()) {
-      questionIds =
-          Optional.of(
-              blockDefinitions().stream()
-                  .map(BlockDefinition::programQuestionDefinitions)
-                  .flatMap(ImmutableList::stream)
-                  .map(ProgramQuestionDefinition::getQuestionDefinition)
-                  .map(QuestionDefinition::getId)
-                  .collect(ImmutableSet.toImmutableSet()));
-    }
-
-    return questionIds.get().contains(questionId);
+    return blockDefinitionsByQuestionId().containsKey(questionId);
   }
 
   public Program toProgram() {
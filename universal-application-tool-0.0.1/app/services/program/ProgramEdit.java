@@ -0,0 +1,222 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import services.question.QuestionNotFoundException;
+import services.question.ReadOnlyQuestionService;
+
+/**
+ * A single change to a program. A list of edits is applied with {@link
+ * ProgramService#applyEdits}, which loads the program once, applies each edit in order to the
+ * in-memory {@link ProgramDefinition}, and writes the result once.
+ *
+ * <p>Edits are applied to hydrated definitions, and any question an edit adds is hydrated from the
+ * same {@link ReadOnlyQuestionService}, so the result needs no further syncing.
+ */
+public abstract class ProgramEdit {
+
+  private ProgramEdit() {}
+
+  /** Returns {@code program} with this edit applied. */
+  abstract ProgramDefinition apply(ProgramDefinition program, ReadOnlyQuestionService questions)
+      throws ProgramBlockNotFoundException, ProgramNeedsABlockException,
+          DuplicateProgramQuestionException, QuestionNotFoundException;
+
+  /** Sets the program's name and description. */
+  public static ProgramEdit updateProgram(String name, String description) {
+    checkNotNull(name);
+    checkNotNull(description);
+    return new ProgramEdit() {
+      @Override
+      ProgramDefinition apply(ProgramDefinition program, ReadOnlyQuestionService questions) {
+        return program.toBuilder().setName(name).setDescription(description).build();
+      }
+    };
+  }
+
+  /**
+   * Adds a block with the given questions after the program's existing blocks. The block's id is
+   * one more than the largest block id in the program at the time the edit is applied.
+   */
+  public static ProgramEdit addBlock(
+      String name, String description, ImmutableList<Long> questionIds) {
+    checkNotNull(name);
+    checkNotNull(description);
+    checkNotNull(questionIds);
+    return new ProgramEdit() {
+      @Override
+      ProgramDefinition apply(ProgramDefinition program, ReadOnlyQuestionService questions)
+          throws QuestionNotFoundException {
+        long blockId =
+            program.blockDefinitions().stream().mapToLong(BlockDefinition::id).max().orElse(0L)
+                + 1;
+        BlockDefinition block =
+            BlockDefinition.builder()
+                .setId(blockId)
+                .setName(name)
+                .setDescription(description)
+                .setProgramQuestionDefinitions(hydrate(questionIds, questions))
+                .build();
+        return program.toBuilder().addBlockDefinition(block).build();
+      }
+    };
+  }
+
+  /** Sets a block's name and description. */
+  public static ProgramEdit updateBlock(long blockId, String name, String description) {
+    checkNotNull(name);
+    checkNotNull(description);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions) {
+        return block.toBuilder().setName(name).setDescription(description).build();
+      }
+    };
+  }
+
+  /** Replaces a block's questions. */
+  public static ProgramEdit setBlockQuestions(long blockId, ImmutableList<Long> questionIds) {
+    checkNotNull(questionIds);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions)
+          throws QuestionNotFoundException {
+        return block.toBuilder()
+            .setProgramQuestionDefinitions(hydrate(questionIds, questions))
+            .build();
+      }
+    };
+  }
+
+  /** Adds questions to the end of a block. None of them may already be in the program. */
+  public static ProgramEdit addQuestionsToBlock(long blockId, ImmutableList<Long> questionIds) {
+    checkNotNull(questionIds);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions)
+          throws DuplicateProgramQuestionException, QuestionNotFoundException {
+        for (long questionId : questionIds) {
+          if (program.hasQuestion(questionId)) {
+            throw new DuplicateProgramQuestionException(program.id(), questionId);
+          }
+        }
+        return block.toBuilder()
+            .setProgramQuestionDefinitions(
+                ImmutableList.<ProgramQuestionDefinition>builder()
+                    .addAll(block.programQuestionDefinitions())
+                    .addAll(hydrate(questionIds, questions))
+                    .build())
+            .build();
+      }
+    };
+  }
+
+  /** Removes questions from a block. Each of them must be in the program. */
+  public static ProgramEdit removeQuestionsFromBlock(
+      long blockId, ImmutableList<Long> questionIds) {
+    checkNotNull(questionIds);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions)
+          throws QuestionNotFoundException {
+        for (long questionId : questionIds) {
+          if (!program.hasQuestion(questionId)) {
+            throw new QuestionNotFoundException(questionId, program.id());
+          }
+        }
+        return block.toBuilder()
+            .setProgramQuestionDefinitions(
+                block.programQuestionDefinitions().stream()
+                    .filter(pqd -> !questionIds.contains(pqd.id()))
+                    .collect(ImmutableList.toImmutableList()))
+            .build();
+      }
+    };
+  }
+
+  /** Sets the {@link Predicate} under which a block is hidden. */
+  public static ProgramEdit setBlockHidePredicate(long blockId, Predicate predicate) {
+    checkNotNull(predicate);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions) {
+        return block.toBuilder().setHidePredicate(predicate).build();
+      }
+    };
+  }
+
+  /** Sets the {@link Predicate} under which a block is optional. */
+  public static ProgramEdit setBlockOptionalPredicate(long blockId, Predicate predicate) {
+    checkNotNull(predicate);
+    return new BlockEdit(blockId) {
+      @Override
+      BlockDefinition apply(
+          ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions) {
+        return block.toBuilder().setOptionalPredicate(predicate).build();
+      }
+    };
+  }
+
+  /** Deletes a block if it is present. The last block of a program cannot be deleted. */
+  public static ProgramEdit deleteBlock(long blockId) {
+    return new ProgramEdit() {
+      @Override
+      ProgramDefinition apply(ProgramDefinition program, ReadOnlyQuestionService questions)
+          throws ProgramNeedsABlockException {
+        ImmutableList<BlockDefinition> blocks =
+            program.blockDefinitions().stream()
+                .filter(block -> block.id() != blockId)
+                .collect(ImmutableList.toImmutableList());
+        if (blocks.isEmpty()) {
+          throw new ProgramNeedsABlockException(program.id());
+        }
+        return program.toBuilder().setBlockDefinitions(blocks).build();
+      }
+    };
+  }
+
+  private static ImmutableList<ProgramQuestionDefinition> hydrate(
+      ImmutableList<Long> questionIds, ReadOnlyQuestionService questions)
+      throws QuestionNotFoundException {
+    ImmutableList.Builder<ProgramQuestionDefinition> hydrated = ImmutableList.builder();
+    for (long questionId : questionIds) {
+      hydrated.add(ProgramQuestionDefinition.create(questions.getQuestionDefinition(questionId)));
+    }
+    return hydrated.build();
+  }
+
+  /** An edit that replaces a single block, which must exist. */
+  private abstract static class BlockEdit extends ProgramEdit {
+    private final long blockId;
+
+    BlockEdit(long blockId) {
+      this.blockId = blockId;
+    }
+
+    abstract BlockDefinition apply(
+        ProgramDefinition program, BlockDefinition block, ReadOnlyQuestionService questions)
+        throws DuplicateProgramQuestionException, QuestionNotFoundException;
+
+    @Override
+    ProgramDefinition apply(ProgramDefinition program, ReadOnlyQuestionService questions)
+        throws ProgramBlockNotFoundException, DuplicateProgramQuestionException,
+            QuestionNotFoundException {
+      List<BlockDefinition> blocks = new ArrayList<>(program.blockDefinitions());
+      for (int i = 0; i < blocks.size(); i++) {
+        if (blocks.get(i).id() == blockId) {
+          blocks.set(i, apply(program, blocks.get(i), questions));
+          return program.toBuilder().setBlockDefinitions(ImmutableList.copyOf(blocks)).build();
+        }
+      }
+      throw new ProgramBlockNotFoundException(program.id(), blockId);
+    }
+  }
+}
@@ -31,8 +31,9 @@ public abstract class ProgramQuestionDefinition {
     return questionDefinition().isPresent();
   }
 
+  /** Creates a reference to the question by id alone, without its {@link QuestionDefinition}. */
   @JsonCreator
-  static ProgramQuestionDefinition create(@JsonProperty("id") long id) {
+  public static ProgramQuestionDefinition create(@JsonProperty("id") long id) {
     return new AutoValue_ProgramQuestionDefinition(id, Optional.empty());
   }
 
@@ -68,7 +68,8 @@ public interface ProgramService {
       throws ProgramNotFoundException;
 
   /**
-   * Adds a {@link BlockDefinition} to the given program.
+   * Adds a {@link BlockDefinition} to the given program. If another add took the block's id first,
+   * the program is reloaded and the add retried with the next free id.
    *
    * @param programId the ID of the program to update
    * @param blockName a name for the block to add
@@ -89,7 +90,8 @@ public interface ProgramService {
   ProgramDefinition addBlockToProgram(long programId) throws ProgramNotFoundException;
 
   /**
-   * Adds a {@link BlockDefinition} to the given program.
+   * Adds a {@link BlockDefinition} to the given program. If another add took the block's id first,
+   * the program is reloaded and the add retried with the next free id.
    *
    * @param programId the ID of the program to update
    * @param blockName a name for the block to add
@@ -197,4 +199,24 @@ public interface ProgramService {
    */
   ProgramDefinition deleteBlock(long programId, long blockDefinitionId)
       throws ProgramNotFoundException, ProgramNeedsABlockException;
+
+  /**
+   * Apply a batch of {@link ProgramEdit}s to a program, in order. The program is loaded once, the
+   * edits are applied in memory, and the resulting changes are written in a single transaction.
+   * If any edit fails, nothing is written. If the program changed after it was loaded, nothing is
+   * written and the edits are applied again to the program as it is now stored.
+   *
+   * @param programId the ID of the program to update
+   * @param edits the edits to apply, in order
+   * @return the updated {@link ProgramDefinition}
+   * @throws ProgramNotFoundException when programId does not correspond to a real Program.
+   * @throws ProgramBlockNotFoundException when an edit refers to a block that does not exist.
+   * @throws ProgramNeedsABlockException when an edit would delete the last block of the program.
+   * @throws DuplicateProgramQuestionException when an edit adds a question already in the program.
+   * @throws QuestionNotFoundException when an edit refers to a question that does not exist, or
+   *     removes a question that is not in the program.
+   */
+  ProgramDefinition applyEdits(long programId, ImmutableList<ProgramEdit> edits)
+      throws ProgramNotFoundException, ProgramBlockNotFoundException, ProgramNeedsABlockException,
+          DuplicateProgramQuestionException, QuestionNotFoundException;
 }
@@ -11,21 +11,57 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Singleton;
+import javax.persistence.OptimisticLockException;
 import models.Program;
 import play.db.ebean.Transactional;
 import play.libs.concurrent.HttpExecutionContext;
+import repository.DataVersions;
 import repository.ProgramRepository;
 import services.question.QuestionDefinition;
 import services.question.QuestionNotFoundException;
 import services.question.QuestionService;
 import services.question.ReadOnlyQuestionService;
 
+@Singleton
 public class ProgramServiceImpl implements ProgramService {
 
   private final ProgramRepository programRepository;
   private final QuestionService questionService;
   private final HttpExecutionContext httpExecutionContext;
 
+  /** How many times a write based on an out of date program definition is attempted. */
+  private static final int MAX_WRITE_ATTEMPTS = 3;
+
+  /**
+   * Fully hydrated program definitions by program id. An entry is served only while neither the
+   * programs nor the questions table has changed since it was built, since either can change what
+   * a hydrated definition contains.
+   */
+  private final ConcurrentHashMap<Long, Cached<ProgramDefinition>> programCache =
+      new ConcurrentHashMap<>();
+
+  /** Every hydrated program definition, as returned by {@link #listProgramDefinitionsAsync()}. */
+  private final AtomicReference<Cached<ImmutableList<ProgramDefinition>>> programListCache =
+      new AtomicReference<>();
+
+  /** A cached value and the {@link DataVersions} it was built from. */
+  private static final class Cached<T> {
+    final DataVersions.Stamp stamp;
+    final T value;
+
+    Cached(DataVersions.Stamp stamp, T value) {
+      this.stamp = stamp;
+      this.value = value;
+    }
+
+    boolean isCurrent() {
+      return stamp.isCurrent();
+    }
+  }
+
   @Inject
   public ProgramServiceImpl(
       ProgramRepository programRepository,
@@ -43,6 +79,12 @@ public class ProgramServiceImpl implements ProgramService {
 
   @Override
   public CompletionStage<ImmutableList<ProgramDefinition>> listProgramDefinitionsAsync() {
+    DataVersions.Stamp stamp = DataVersions.stamp();
+    Cached<ImmutableList<ProgramDefinition>> cached = programListCache.get();
+    if (cached != null && cached.isCurrent()) {
+      return CompletableFuture.completedFuture(cached.value);
+    }
+
     CompletableFuture<ReadOnlyQuestionService> roQuestionServiceFuture =
         questionService.getReadOnlyQuestionService().toCompletableFuture();
     CompletableFuture<ImmutableList<Program>> programsFuture =
@@ -54,12 +96,18 @@ public class ProgramServiceImpl implements ProgramService {
               ReadOnlyQuestionService roQuestionService = roQuestionServiceFuture.join();
               ImmutableList<Program> programs = programsFuture.join();
 
-              return programs.stream()
-                  .map(
-                      program ->
-                          syncProgramDefinitionQuestions(
-                              program.getProgramDefinition(), roQuestionService))
-                  .collect(ImmutableList.toImmutableList());
+              ImmutableList<ProgramDefinition> programDefinitions =
+                  programs.stream()
+                      .map(
+                          program ->
+                              syncProgramDefinitionQuestions(
+                                  program.getProgramDefinition(), roQuestionService))
+                      .collect(ImmutableList.toImmutableList());
+              programListCache.set(new Cached<>(stamp, programDefinitions));
+              for (ProgramDefinition programDefinition : programDefinitions) {
+                programCache.put(programDefinition.id(), new Cached<>(stamp, programDefinition));
+              }
+              return programDefinitions;
             },
             httpExecutionContext.current());
   }
@@ -76,8 +124,18 @@ public class ProgramServiceImpl implements ProgramService {
     }
   }
 
+  /**
+   * Served from memory while neither programs nor questions have changed since the definition was
+   * last loaded; otherwise reads the program and hydrates its questions.
+   */
   @Override
   public CompletionStage<ProgramDefinition> getProgramDefinitionAsync(long id) {
+    DataVersions.Stamp stamp = DataVersions.stamp();
+    Cached<ProgramDefinition> cached = programCache.get(id);
+    if (cached != null && cached.isCurrent()) {
+      return CompletableFuture.completedFuture(cached.value);
+    }
+
     return programRepository
         .lookupProgram(id)
         .thenComposeAsync(
@@ -88,7 +146,12 @@ public class ProgramServiceImpl implements ProgramService {
                         .map(Program::getProgramDefinition)
                         .map(this::syncProgramDefinitionQuestions)
                         .get(),
-            httpExecutionContext.current());
+            httpExecutionContext.current())
+        .thenApply(
+            programDefinition -> {
+              programCache.put(id, new Cached<>(stamp, programDefinition));
+              return programDefinition;
+            });
   }
 
   @Override
@@ -101,12 +164,8 @@ public class ProgramServiceImpl implements ProgramService {
   public ProgramDefinition updateProgramDefinition(long programId, String name, String description)
       throws ProgramNotFoundException {
     ProgramDefinition programDefinition = getProgramDefinition(programId);
-    Program program =
-        programDefinition.toBuilder().setName(name).setDescription(description).build().toProgram();
-    return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
-        .toCompletableFuture()
-        .join();
+    programRepository.updateProgramDetailsSync(programId, name, description);
+    return programDefinition.toBuilder().setName(name).setDescription(description).build();
   }
 
   @Override
@@ -133,23 +192,29 @@ public class ProgramServiceImpl implements ProgramService {
       String blockDescription,
       ImmutableList<ProgramQuestionDefinition> questionDefinitions)
       throws ProgramNotFoundException {
-    ProgramDefinition programDefinition = getProgramDefinition(programId);
-    long blockId = getNextBlockId(programDefinition);
-
-    BlockDefinition blockDefinition =
-        BlockDefinition.builder()
-            .setId(blockId)
-            .setName(blockName)
-            .setDescription(blockDescription)
-            .setProgramQuestionDefinitions(questionDefinitions)
-            .build();
-
-    Program program =
-        programDefinition.toBuilder().addBlockDefinition(blockDefinition).build().toProgram();
-    return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
-        .toCompletableFuture()
-        .join();
+    for (int attempt = 1; ; attempt++) {
+      ProgramDefinition programDefinition = getProgramDefinition(programId);
+      long blockId = getNextBlockId(programDefinition);
+
+      BlockDefinition blockDefinition =
+          BlockDefinition.builder()
+              .setId(blockId)
+              .setName(blockName)
+              .setDescription(blockDescription)
+              .setProgramQuestionDefinitions(questionDefinitions)
+              .build();
+
+      try {
+        programRepository.insertBlockSync(programId, blockDefinition);
+      } catch (OptimisticLockException e) {
+        retryWithCurrentDefinition(programId, attempt, e);
+        continue;
+      }
+      return syncProgramDefinitionQuestions(
+              programDefinition.toBuilder().addBlockDefinition(blockDefinition).build())
+          .toCompletableFuture()
+          .join();
+    }
   }
 
   @Override
@@ -165,8 +230,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setDescription(blockForm.getDescription())
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    programRepository.updateBlockSync(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -184,8 +249,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setProgramQuestionDefinitions(programQuestionDefinitions)
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    writeBlockQuestions(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -230,8 +295,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setProgramQuestionDefinitions(newProgramQuestionDefinitions)
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    writeBlockQuestions(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -262,8 +327,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setProgramQuestionDefinitions(newProgramQuestionDefinitions)
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    writeBlockQuestions(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -279,8 +344,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setHidePredicate(Optional.of(predicate))
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    programRepository.updateBlockSync(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -296,8 +361,8 @@ public class ProgramServiceImpl implements ProgramService {
             .setOptionalPredicate(Optional.of(predicate))
             .build();
 
-    return updateProgramDefinitionWithBlockDefinition(
-        programDefinition, blockDefinitionIndex, blockDefinition);
+    programRepository.updateBlockSync(programId, blockDefinition);
+    return replaceBlockDefinition(programDefinition, blockDefinitionIndex, blockDefinition);
   }
 
   @Override
@@ -314,30 +379,73 @@ public class ProgramServiceImpl implements ProgramService {
       throw new ProgramNeedsABlockException(programId);
     }
 
-    Program program =
-        programDefinition.toBuilder().setBlockDefinitions(newBlocks).build().toProgram();
-    return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
-        .toCompletableFuture()
-        .join();
+    programRepository.deleteBlockSync(programId, blockDefinitionId);
+    return programDefinition.toBuilder().setBlockDefinitions(newBlocks).build();
   }
 
-  private int getBlockDefinitionIndex(ProgramDefinition programDefinition, Long blockDefinitionId)
-      throws ProgramBlockNotFoundException {
-    int index =
-        programDefinition.blockDefinitions().stream()
-            .map(b -> b.id())
-            .collect(ImmutableList.toImmutableList())
-            .indexOf(blockDefinitionId);
+  @Override
+  public ProgramDefinition applyEdits(long programId, ImmutableList<ProgramEdit> edits)
+      throws ProgramNotFoundException, ProgramBlockNotFoundException, ProgramNeedsABlockException,
+          DuplicateProgramQuestionException, QuestionNotFoundException {
+    for (int attempt = 1; ; attempt++) {
+      ProgramDefinition existing = getProgramDefinition(programId);
+      ReadOnlyQuestionService roQuestionService =
+          questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+
+      ProgramDefinition updated = existing;
+      for (ProgramEdit edit : edits) {
+        updated = edit.apply(updated, roQuestionService);
+      }
+
+      if (!updated.equals(existing)) {
+        try {
+          programRepository.updateProgramSync(existing, updated);
+        } catch (OptimisticLockException e) {
+          retryWithCurrentDefinition(programId, attempt, e);
+          continue;
+        }
+      }
+      return updated;
+    }
+  }
 
-    if (index == -1) {
-      throw new ProgramBlockNotFoundException(programDefinition.id(), blockDefinitionId);
+  /**
+   * Called when a write was rejected because the cached definition it was based on is out of date.
+   * Drops the cached definition, so the next attempt reads the program as stored, or rethrows once
+   * {@link #MAX_WRITE_ATTEMPTS} attempts have been rejected.
+   */
+  private void retryWithCurrentDefinition(
+      long programId, int attempt, OptimisticLockException conflict) {
+    programCache.remove(programId);
+    programListCache.set(null);
+    if (attempt >= MAX_WRITE_ATTEMPTS) {
+      throw conflict;
     }
+  }
 
-    return index;
+  private int getBlockDefinitionIndex(ProgramDefinition programDefinition, Long blockDefinitionId)
+      throws ProgramBlockNotFoundException {
+    return programDefinition
+        .getBlockDefinitionIndex(blockDefinitionId)
+        .orElseThrow(
+            () -> new ProgramBlockNotFoundException(programDefinition.id(), blockDefinitionId));
+  }
+
+  /** Writes the block's question references, leaving the rest of the program untouched. */
+  private void writeBlockQuestions(long programId, BlockDefinition blockDefinition) {
+    programRepository.setBlockQuestionsSync(
+        programId,
+        blockDefinition.id(),
+        blockDefinition.programQuestionDefinitions().stream()
+            .map(ProgramQuestionDefinition::id)
+            .collect(ImmutableList.toImmutableList()));
   }
 
-  private ProgramDefinition updateProgramDefinitionWithBlockDefinition(
+  /**
+   * Returns the program definition with the block at {@code blockDefinitionIndex} replaced. The
+   * block must already have been written.
+   */
+  private ProgramDefinition replaceBlockDefinition(
       ProgramDefinition programDefinition,
       int blockDefinitionIndex,
       BlockDefinition blockDefinition) {
@@ -348,13 +456,8 @@ public class ProgramServiceImpl implements ProgramService {
     ImmutableList<BlockDefinition> updatedBlockDefinitions =
         ImmutableList.copyOf(mutableBlockDefinitions);
 
-    Program program =
-        programDefinition.toBuilder()
-            .setBlockDefinitions(updatedBlockDefinitions)
-            .build()
-            .toProgram();
     return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
+            programDefinition.toBuilder().setBlockDefinitions(updatedBlockDefinitions).build())
         .toCompletableFuture()
         .join();
   }
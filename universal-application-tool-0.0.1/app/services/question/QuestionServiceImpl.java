@@ -7,16 +7,38 @@ import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Singleton;
 import models.Question;
+import repository.DataVersions;
 import repository.QuestionRepository;
 import services.ErrorAnd;
 import services.Path;
 
+@Singleton
 public final class QuestionServiceImpl implements QuestionService {
 
   private QuestionRepository questionRepository;
 
+  /**
+   * The most recently built {@link ReadOnlyQuestionService}, shared by all callers until the
+   * questions table changes. See {@link DataVersions}.
+   */
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+  /** An immutable {@link ReadOnlyQuestionService} and the question table version it reflects. */
+  private static final class Snapshot {
+    final long version;
+    final ReadOnlyQuestionService service;
+
+    Snapshot(long version, ReadOnlyQuestionService service) {
+      this.version = version;
+      this.service = service;
+    }
+  }
+
   @Inject
   public QuestionServiceImpl(QuestionRepository questionRepository) {
     this.questionRepository = checkNotNull(questionRepository);
@@ -39,10 +61,30 @@ public final class QuestionServiceImpl implements QuestionService {
     return ErrorAnd.of(question.getQuestionDefinition());
   }
 
+  /**
+   * Returns the cached snapshot of the question bank, rebuilding it only if a question has been
+   * created, updated or deleted since it was built.
+   */
   @Override
   public CompletionStage<ReadOnlyQuestionService> getReadOnlyQuestionService() {
+    // Read the version before loading, so a change that commits during the load leaves the new
+    // snapshot already stale rather than wrongly current.
+    long version = DataVersions.questions();
+    Snapshot current = snapshot.get();
+    if (current != null && current.version == version) {
+      return CompletableFuture.completedFuture(current.service);
+    }
     return listQuestionDefinitionsAsync()
-        .thenApply(questionDefinitions -> new ReadOnlyQuestionServiceImpl(questionDefinitions));
+        .thenApply(
+            questionDefinitions -> {
+              Snapshot built =
+                  new Snapshot(version, new ReadOnlyQuestionServiceImpl(questionDefinitions));
+              snapshot.accumulateAndGet(
+                  built,
+                  (existing, update) ->
+                      existing != null && existing.version > update.version ? existing : update);
+              return built.service;
+            });
   }
 
   @Override
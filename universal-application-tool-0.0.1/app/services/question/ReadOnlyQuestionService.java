@@ -68,10 +68,13 @@ public interface ReadOnlyQuestionService {
   boolean isValid(Path path);
 
   /**
-   * When getting question text and help text we need to send the Locale. If absent it will use the
-   * preferred locale.
+   * Returns a view of the same questions whose preferred locale is {@code locale}. When getting
+   * question text and help text we need to send the Locale. If absent it will use the preferred
+   * locale.
+   *
+   * <p>Instances may be shared between requests, so the preferred locale is never changed in place.
    */
-  void setPreferredLocale(Locale locale);
+  ReadOnlyQuestionService forLocale(Locale locale);
 
   Locale getPreferredLocale();
 }
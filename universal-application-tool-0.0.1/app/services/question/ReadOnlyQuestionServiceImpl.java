@@ -13,7 +13,7 @@ public final class ReadOnlyQuestionServiceImpl implements ReadOnlyQuestionServic
   private final ImmutableMap<Path, QuestionDefinition> questionsByPath;
   private final ImmutableMap<Path, QuestionDefinition> scalarParents;
 
-  private Locale preferredLocale = Locale.ENGLISH;
+  private final Locale preferredLocale;
 
   public ReadOnlyQuestionServiceImpl(ImmutableList<QuestionDefinition> questions) {
     checkNotNull(questions);
@@ -36,6 +36,16 @@ public final class ReadOnlyQuestionServiceImpl implements ReadOnlyQuestionServic
     questionsByPath = questionPathMap.build();
     scalars = scalarMap.build();
     scalarParents = scalarParentsMap.build();
+    preferredLocale = Locale.ENGLISH;
+  }
+
+  /** A view of {@code other}'s questions with a different preferred locale. */
+  private ReadOnlyQuestionServiceImpl(ReadOnlyQuestionServiceImpl other, Locale preferredLocale) {
+    this.questionsById = other.questionsById;
+    this.questionsByPath = other.questionsByPath;
+    this.scalars = other.scalars;
+    this.scalarParents = other.scalarParents;
+    this.preferredLocale = checkNotNull(preferredLocale);
   }
 
   @Override
@@ -106,8 +116,11 @@ public final class ReadOnlyQuestionServiceImpl implements ReadOnlyQuestionServic
   }
 
   @Override
-  public void setPreferredLocale(Locale locale) {
-    this.preferredLocale = locale;
+  public ReadOnlyQuestionService forLocale(Locale locale) {
+    if (locale.equals(preferredLocale)) {
+      return this;
+    }
+    return new ReadOnlyQuestionServiceImpl(this, locale);
   }
 
   @Override
@@ -43,6 +43,11 @@ public class BaseHtmlLayout extends BaseHtmlView {
     return viewUtils.makeLocalJsTag(WEBPACK_OUTPUT_FILENAME);
   }
 
+  /** Returns a script tag that loads public/javascripts/[filename].js. */
+  protected Tag localJsTag(String filename) {
+    return viewUtils.makeLocalJsTag(filename);
+  }
+
   protected static class HtmlResponseContent implements Content {
     private final DomContent[] domContents;
 
@@ -5,7 +5,9 @@ import static j2html.TagCreator.head;
 import static j2html.TagCreator.main;
 import static j2html.TagCreator.title;
 
+import j2html.tags.ContainerTag;
 import j2html.tags.DomContent;
+import java.util.Optional;
 import javax.inject.Inject;
 import play.twirl.api.Content;
 import views.BaseHtmlLayout;
@@ -18,10 +20,23 @@ public class ApplicantLayout extends BaseHtmlLayout {
     super(viewUtils);
   }
 
+  private static final String REPLACE_URL_SCRIPT = "replace_url";
+
   /** Renders mainDomContents within the main tag, in the context of the applicant layout. */
   protected Content render(DomContent... mainDomContents) {
-    return htmlContent(
-        head().with(title("Applicant layout title"), tailwindStyles()),
-        body().with(main(mainDomContents)));
+    return render(Optional.empty(), mainDomContents);
+  }
+
+  /**
+   * Renders mainDomContents within the main tag, in the context of the applicant layout. If
+   * {@code replaceUrl} is present, the browser shows it in place of the URL the page was requested
+   * from, for pages served in response to a form post rather than redirected to.
+   */
+  protected Content render(Optional<String> replaceUrl, DomContent... mainDomContents) {
+    ContainerTag body = body().with(main(mainDomContents));
+    if (replaceUrl.isPresent()) {
+      body.attr("data-replace-url", replaceUrl.get()).with(localJsTag(REPLACE_URL_SCRIPT));
+    }
+    return htmlContent(head().with(title("Applicant layout title"), tailwindStyles()), body);
   }
 }
@@ -10,6 +10,7 @@ import com.google.auto.value.AutoValue;
 import com.google.inject.Inject;
 import controllers.applicant.routes;
 import j2html.tags.Tag;
+import java.util.Optional;
 import play.i18n.Messages;
 import play.mvc.Http;
 import play.mvc.Http.HttpVerbs;
@@ -38,6 +39,7 @@ public final class ApplicantProgramBlockEditView extends BaseHtmlView {
             .url();
 
     return layout.render(
+        params.replaceUrl(),
         h1(params.block().getName()),
         p(params.block().getDescription()),
         form()
@@ -68,6 +70,9 @@ public final class ApplicantProgramBlockEditView extends BaseHtmlView {
 
     abstract Block block();
 
+    /** The URL to show in the browser in place of the one the page was requested from. */
+    abstract Optional<String> replaceUrl();
+
     @AutoValue.Builder
     public abstract static class Builder {
       public abstract Builder setRequest(Http.Request request);
@@ -80,6 +85,8 @@ public final class ApplicantProgramBlockEditView extends BaseHtmlView {
 
       public abstract Builder setBlock(Block block);
 
+      public abstract Builder setReplaceUrl(String replaceUrl);
+
       public abstract Params build();
     }
   }
@@ -0,0 +1,22 @@
+# --- Applicant version, advanced by the database on every write, so a node can tell whether an
+# --- applicant it has cached has since been changed by another node.
+
+# --- !Ups
+
+alter table applicants add version bigint not null default 1;
+
+create or replace function advance_applicant_version() returns trigger as $$
+begin
+  new.version := old.version + 1;;
+  return new;;
+end;;
+$$ language plpgsql;
+
+create trigger advance_applicant_version before update on applicants
+  for each row execute procedure advance_applicant_version();
+
+# --- !Downs
+
+drop trigger if exists advance_applicant_version on applicants;
+drop function if exists advance_applicant_version();
+alter table applicants drop column version;
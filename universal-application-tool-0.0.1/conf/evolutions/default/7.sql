@@ -0,0 +1,15 @@
+# --- Applicant created time as a column, so the newest applicant for an account can be found
+# --- without parsing applicant JSON.
+
+# --- !Ups
+
+alter table applicants add created_time timestamp with time zone;
+update applicants set created_time = (object #>> '{metadata,created_time}')::timestamptz
+  where object #>> '{metadata,created_time}' is not null;
+create index if not exists index_applicants_by_account_and_created_time
+  on applicants (account_id, created_time desc nulls last);
+
+# --- !Downs
+
+drop index if exists index_applicants_by_account_and_created_time;
+alter table applicants drop column created_time;
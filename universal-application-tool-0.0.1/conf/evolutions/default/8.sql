@@ -0,0 +1,10 @@
+# --- Index for question path prefix lookups
+
+# --- !Ups
+
+create index if not exists index_questions_by_lower_path
+  on questions (lower(path) text_pattern_ops);
+
+# --- !Downs
+
+drop index if exists index_questions_by_lower_path;
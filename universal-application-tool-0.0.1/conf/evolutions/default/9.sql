@@ -0,0 +1,76 @@
+# --- Program blocks and their questions in their own tables, so that editing a block only
+# --- touches that block's rows, and programs can be found by the questions they use.
+
+# --- !Ups
+
+create table if not exists program_blocks (
+  id bigserial primary key,
+  program_id bigint not null references programs (id) on delete cascade,
+  block_id bigint not null,
+  position int not null,
+  name varchar,
+  description varchar,
+  hide_predicate varchar,
+  optional_predicate varchar
+);
+create unique index if not exists index_program_blocks_by_program
+  on program_blocks (program_id, block_id);
+
+create table if not exists program_block_questions (
+  id bigserial primary key,
+  program_block_id bigint not null references program_blocks (id) on delete cascade,
+  question_id bigint not null,
+  position int not null
+);
+create index if not exists index_program_block_questions_by_block
+  on program_block_questions (program_block_id);
+create index if not exists index_program_block_questions_by_question
+  on program_block_questions (question_id);
+
+insert into program_blocks
+    (program_id, block_id, position, name, description, hide_predicate, optional_predicate)
+  select programs.id, (blocks.block ->> 'id')::bigint, blocks.ordinal - 1,
+      blocks.block ->> 'name', blocks.block ->> 'description',
+      blocks.block #>> '{hidePredicate,expression}',
+      blocks.block #>> '{optionalPredicate,expression}'
+  from programs
+  cross join jsonb_array_elements(programs.block_definitions)
+    with ordinality as blocks (block, ordinal);
+
+insert into program_block_questions (program_block_id, question_id, position)
+  select program_blocks.id, (questions.question ->> 'id')::bigint, questions.ordinal - 1
+  from programs
+  cross join jsonb_array_elements(programs.block_definitions) as blocks (block)
+  join program_blocks on program_blocks.program_id = programs.id
+    and program_blocks.block_id = (blocks.block ->> 'id')::bigint
+  cross join jsonb_array_elements(blocks.block -> 'questionDefinitions')
+    with ordinality as questions (question, ordinal);
+
+alter table programs drop column block_definitions;
+
+# --- !Downs
+
+alter table programs add column block_definitions jsonb not null default '[]';
+update programs set block_definitions = coalesce(
+  (select jsonb_agg(
+      jsonb_build_object(
+        'id', program_blocks.block_id,
+        'name', program_blocks.name,
+        'description', program_blocks.description,
+        'hidePredicate', case when program_blocks.hide_predicate is null then null
+          else jsonb_build_object('expression', program_blocks.hide_predicate) end,
+        'optionalPredicate', case when program_blocks.optional_predicate is null then null
+          else jsonb_build_object('expression', program_blocks.optional_predicate) end,
+        'questionDefinitions', coalesce(
+          (select jsonb_agg(jsonb_build_object('id', program_block_questions.question_id)
+              order by program_block_questions.position)
+            from program_block_questions
+            where program_block_questions.program_block_id = program_blocks.id),
+          '[]'::jsonb))
+      order by program_blocks.position)
+    from program_blocks
+    where program_blocks.program_id = programs.id),
+  '[]'::jsonb);
+alter table programs alter column block_definitions drop default;
+drop table if exists program_block_questions;
+drop table if exists program_blocks;
@@ -0,0 +1,9 @@
+// Pages rendered in response to a form post, rather than redirected to, name the URL they stand
+// for. Show that URL, so that reloading or bookmarking the page requests it instead of posting
+// the form again.
+(function () {
+  var url = document.body.getAttribute('data-replace-url');
+  if (url && window.history && window.history.replaceState) {
+    window.history.replaceState(null, '', url);
+  }
+})();
@@ -14,6 +14,8 @@ import java.util.Optional;
 import models.Account;
 import models.Applicant;
 import models.Program;
+import models.ProgramBlock;
+import models.ProgramBlockQuestion;
 import models.Question;
 import org.fluentlenium.core.domain.FluentWebElement;
 import org.junit.Before;
@@ -23,6 +25,7 @@ import play.Application;
 import play.api.mvc.Call;
 import play.db.ebean.EbeanConfig;
 import play.test.WithBrowser;
+import repository.DataVersions;
 import services.question.QuestionType;
 import support.TestConstants;
 
@@ -40,7 +43,14 @@ public class BaseBrowserTest extends WithBrowser {
   public void truncateTables() {
     EbeanConfig config = app.injector().instanceOf(EbeanConfig.class);
     EbeanServer server = Ebean.getServer(config.defaultServer());
-    server.truncate(Applicant.class, Program.class, Question.class, Account.class);
+    server.truncate(
+        Applicant.class,
+        ProgramBlockQuestion.class,
+        ProgramBlock.class,
+        Program.class,
+        Question.class,
+        Account.class);
+    DataVersions.allChanged();
   }
 
   /**
@@ -0,0 +1,137 @@
+package controllers.admin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.mvc.Http.Status.NOT_FOUND;
+import static play.mvc.Http.Status.OK;
+import static play.test.Helpers.contentAsString;
+
+import akka.stream.Materializer;
+import models.Applicant;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import play.mvc.Result;
+import repository.WithPostgresContainer;
+import services.Path;
+import support.ProgramBuilder;
+import support.TestQuestionBank;
+
+public class AdminProgramExportControllerTest extends WithPostgresContainer {
+
+  private AdminProgramExportController controller;
+
+  @Before
+  public void setup() {
+    controller = instanceOf(AdminProgramExportController.class);
+  }
+
+  @Test
+  public void downloadCsv_programNotFound_returnsNotFound() {
+    Result result = controller.downloadAllApplicantsCsv(1234L);
+
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+  }
+
+  @Test
+  public void downloadCsv_withoutCsvExport_streamsAColumnPerScalar() {
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(TestQuestionBank.applicantName())
+            .build();
+    saveApplicant("Alice", "Appleton");
+    saveApplicant("Bob", "Baker");
+
+    Result result = controller.downloadAllApplicantsCsv(program.id);
+
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(result.contentType()).hasValue("text/csv");
+    String csv = contentAsString(result, instanceOf(Materializer.class));
+    assertThat(csv)
+        .startsWith("applicant.name.first,applicant.name.middle,applicant.name.last\r\n")
+        .contains("Alice,COLUMN_EMPTY,Appleton\r\n", "Bob,COLUMN_EMPTY,Baker\r\n");
+  }
+
+  @Test
+  public void downloadSqlCsv_programNotFound_returnsNotFound() {
+    Result result = controller.downloadAllApplicantsSqlCsv(1234L);
+
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+  }
+
+  @Test
+  public void downloadSqlCsv_withoutCsvExport_streamsAColumnPerScalar() {
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(TestQuestionBank.applicantName())
+            .build();
+    saveApplicant("Alice", "Appleton");
+    saveApplicant("Bob", "Baker");
+
+    Result result = controller.downloadAllApplicantsSqlCsv(program.id);
+
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(result.contentType()).hasValue("text/csv");
+    String csv = contentAsString(result, instanceOf(Materializer.class));
+    assertThat(csv)
+        .isEqualTo(
+            "applicant.name.first,applicant.name.middle,applicant.name.last\n"
+                + "Alice,COLUMN_EMPTY,Appleton\n"
+                + "Bob,COLUMN_EMPTY,Baker\n");
+  }
+
+  @Test
+  public void downloadParallelCsv_withoutCsvExport_streamsAColumnPerScalar() {
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(TestQuestionBank.applicantName())
+            .build();
+    saveApplicant("Alice", "Appleton");
+    saveApplicant("Bob", "Baker");
+
+    Result result = controller.downloadAllApplicantsParallelCsv(program.id);
+
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(contentAsString(result, instanceOf(Materializer.class)))
+        .isEqualTo(
+            "applicant.name.first,applicant.name.middle,applicant.name.last\r\n"
+                + "Alice,COLUMN_EMPTY,Appleton\r\n"
+                + "Bob,COLUMN_EMPTY,Baker\r\n");
+  }
+
+  @Test
+  public void downloadPdfZip_withoutPdfExport_returnsNotFound() {
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(TestQuestionBank.applicantName())
+            .build();
+
+    Result result = controller.downloadAllApplicantsPdfZip(program.id);
+
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+  }
+
+  @Test
+  public void downloadPdfPacket_withoutPdfExport_returnsNotFound() {
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(TestQuestionBank.applicantName())
+            .build();
+
+    Result result =
+        controller.downloadAllApplicantsPdfPacket(program.id).toCompletableFuture().join();
+
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+  }
+
+  private void saveApplicant(String firstName, String lastName) {
+    Applicant applicant = new Applicant();
+    applicant.getApplicantData().putString(Path.create("applicant.name.first"), firstName);
+    applicant.getApplicantData().putString(Path.create("applicant.name.last"), lastName);
+    applicant.save();
+  }
+}
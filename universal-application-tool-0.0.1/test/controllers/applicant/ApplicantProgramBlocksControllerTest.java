@@ -2,6 +2,7 @@ package controllers.applicant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static play.api.test.CSRFTokenHelper.addCSRFToken;
+import static play.mvc.Http.HeaderNames.CONTENT_LOCATION;
 import static play.mvc.Http.Status.BAD_REQUEST;
 import static play.mvc.Http.Status.NOT_FOUND;
 import static play.mvc.Http.Status.OK;
@@ -11,16 +12,22 @@ import static play.test.Helpers.fakeRequest;
 import static play.test.Helpers.stubMessagesApi;
 
 import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
 import java.util.Locale;
 import models.Applicant;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
+import play.data.FormFactory;
+import play.i18n.MessagesApi;
+import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
 import repository.WithPostgresContainer;
+import services.applicant.ApplicantService;
 import support.ProgramBuilder;
 import support.TestQuestionBank;
+import views.applicant.ApplicantProgramBlockEditView;
 
 public class ApplicantProgramBlocksControllerTest extends WithPostgresContainer {
 
@@ -174,6 +181,46 @@ public class ApplicantProgramBlocksControllerTest extends WithPostgresContainer
     assertThat(result.redirectLocation()).hasValue(nextBlockEditRoute);
   }
 
+  @Test
+  public void update_withNextBlock_renderNextBlockInline_rendersTheNextBlock() {
+    subject =
+        new ApplicantProgramBlocksController(
+            instanceOf(ApplicantService.class),
+            instanceOf(MessagesApi.class),
+            instanceOf(HttpExecutionContext.class),
+            instanceOf(ApplicantProgramBlockEditView.class),
+            instanceOf(FormFactory.class),
+            ConfigFactory.parseMap(ImmutableMap.of("applicant.render_next_block_inline", true)));
+    program =
+        ProgramBuilder.newProgram()
+            .withBlock("block 1")
+            .withQuestion(TestQuestionBank.applicantName())
+            .withBlock("block 2")
+            .withQuestion(TestQuestionBank.applicantAddress())
+            .build();
+    Request request =
+        addCSRFToken(
+                fakeRequest(
+                        routes.ApplicantProgramBlocksController.update(
+                            applicant.id, program.id, 1L))
+                    .bodyForm(
+                        ImmutableMap.of(
+                            "applicant.name.first",
+                            "FirstName",
+                            "applicant.name.last",
+                            "LastName")))
+            .build();
+
+    Result result =
+        subject.update(request, applicant.id, program.id, 1L).toCompletableFuture().join();
+
+    String nextBlockEditRoute =
+        routes.ApplicantProgramBlocksController.edit(applicant.id, program.id, 2L).url();
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(result.header(CONTENT_LOCATION)).hasValue(nextBlockEditRoute);
+    assertThat(contentAsString(result)).contains("block 2", nextBlockEditRoute);
+  }
+
   @Test
   public void update_completedProgram_redirectsToReviewPage() {
     program =
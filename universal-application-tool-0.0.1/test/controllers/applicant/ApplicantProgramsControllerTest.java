@@ -8,6 +8,7 @@ import static play.test.Helpers.contentAsString;
 import static play.test.Helpers.fakeRequest;
 import static play.test.Helpers.stubMessagesApi;
 
+import com.google.common.collect.ImmutableMap;
 import java.util.Locale;
 import models.Applicant;
 import models.Program;
@@ -17,6 +18,7 @@ import org.junit.Test;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.WithPostgresContainer;
+import services.applicant.ApplicantService;
 import support.ProgramBuilder;
 
 public class ApplicantProgramsControllerTest extends WithPostgresContainer {
@@ -82,8 +84,6 @@ public class ApplicantProgramsControllerTest extends WithPostgresContainer {
     assertThat(result.status()).isEqualTo(BAD_REQUEST);
   }
 
-  // TODO(https://github.com/seattle-uat/universal-application-tool/issues/224): Should redirect to
-  //  next incomplete block rather than first block.
   @Test
   public void edit_withNewProgram_redirectsToFirstBlock() {
     Applicant applicant = resourceCreator().insertApplicant();
@@ -96,10 +96,28 @@ public class ApplicantProgramsControllerTest extends WithPostgresContainer {
         .hasValue(routes.ApplicantProgramBlocksController.edit(applicant.id, program.id, 1).url());
   }
 
-  // TODO(https://github.com/seattle-uat/universal-application-tool/issues/224): Should redirect to
-  //  next incomplete block rather than first block.
-  @Ignore
-  public void edit_redirectsToFirstIncompleteBlock() {}
+  @Test
+  public void edit_redirectsToFirstIncompleteBlock() {
+    Applicant applicant = resourceCreator().insertApplicant();
+    Program program =
+        ProgramBuilder.newProgram()
+            .withBlock()
+            .withQuestion(resourceCreator().insertQuestion("applicant.color"))
+            .withBlock()
+            .withQuestion(resourceCreator().insertQuestion("applicant.food"))
+            .build();
+    instanceOf(ApplicantService.class)
+        .stageAndUpdateIfValid(
+            applicant.id, program.id, 1L, ImmutableMap.of("applicant.color", "blue"))
+        .toCompletableFuture()
+        .join();
+
+    Result result = controller.edit(applicant.id, program.id).toCompletableFuture().join();
+
+    assertThat(result.status()).isEqualTo(FOUND);
+    assertThat(result.redirectLocation())
+        .hasValue(routes.ApplicantProgramBlocksController.edit(applicant.id, program.id, 2).url());
+  }
 
   // TODO(https://github.com/seattle-uat/universal-application-tool/issues/256): Should redirect to
   //  end of program submission.
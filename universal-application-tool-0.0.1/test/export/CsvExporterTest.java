@@ -21,7 +21,6 @@ import services.program.*;
 public class CsvExporterTest {
   private static Program fakeProgramWithCsvExport;
   private ImmutableList<Applicant> fakeApplicants;
-  private Writer writer;
   private ByteArrayOutputStream inMemoryBytes;
 
   public static CsvExportConfig createFakeCsvConfig() {
@@ -68,9 +67,8 @@ public class CsvExporterTest {
   }
 
   @Before
-  public void createInMemoryWriter() {
+  public void createInMemoryStream() {
     this.inMemoryBytes = new ByteArrayOutputStream();
-    this.writer = new OutputStreamWriter(inMemoryBytes, StandardCharsets.UTF_8);
   }
 
   @Test
@@ -80,9 +78,8 @@ public class CsvExporterTest {
     assertThat(exporters).hasSize(1);
     assertThat(exporters.get(0)).isInstanceOf(CsvExporter.class);
     for (Applicant applicant : fakeApplicants) {
-      exporters.get(0).export(applicant, writer);
+      exporters.get(0).export(applicant, inMemoryBytes);
     }
-    writer.close();
 
     CSVParser parser =
         CSVParser.parse(
@@ -0,0 +1,125 @@
+package export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import models.Applicant;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Before;
+import org.junit.Test;
+import repository.WithPostgresContainer;
+import services.Path;
+import services.applicant.ApplicantService;
+import services.program.Column;
+import services.program.PdfExportConfig;
+
+public class ParallelExporterTest extends WithPostgresContainer {
+
+  private ParallelExporter exporter;
+
+  @Before
+  public void setup() {
+    exporter =
+        new ParallelExporter(
+            instanceOf(ApplicantService.class),
+            instanceOf(ExportExecutionContext.class),
+            instanceOf(ExporterFactory.class),
+            ConfigFactory.parseMap(
+                ImmutableMap.of(
+                    "export.parallel.csv_partition_size", 2,
+                    "export.parallel.pdf_partition_size", 2,
+                    "export.parallel.max_in_flight_partitions", 3)));
+  }
+
+  @Test
+  public void exportCsv_concatenatesPartitionsInIdOrder() {
+    for (String name : ImmutableList.of("one", "two", "three", "four", "five")) {
+      saveApplicant(name);
+    }
+
+    String csv =
+        run(
+            exporter.exportCsv(
+                ImmutableList.of(
+                    Column.builder().setHeader("name").setJsonPath("applicant.name").build())));
+
+    assertThat(csv).isEqualTo("name\r\none\r\ntwo\r\nthree\r\nfour\r\nfive\r\n");
+  }
+
+  @Test
+  public void exportCsv_noApplicants_onlyHeaders() {
+    String csv =
+        run(
+            exporter.exportCsv(
+                ImmutableList.of(
+                    Column.builder().setHeader("name").setJsonPath("applicant.name").build())));
+
+    assertThat(csv).isEqualTo("name\r\n");
+  }
+
+  @Test
+  public void exportPdfZip_hasAFilledPdfPerApplicant() throws IOException {
+    Applicant one = saveApplicant("one");
+    Applicant two = saveApplicant("two");
+    Applicant three = saveApplicant("three");
+    // Shares a partition with the previous applicant, whose value must not carry over.
+    Applicant unnamed = new Applicant();
+    unnamed.save();
+    PdfExportConfig config =
+        PdfExportConfig.builder()
+            .setBaseDocument(new File("test/export/base.pdf").toURI())
+            .setMappings(ImmutableMap.of("formfield", "applicant.name"))
+            .build();
+
+    byte[] zip = collect(exporter.exportPdfZip(config)).toArray();
+
+    List<String> names = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      for (ZipEntry entry = entries.getNextEntry(); entry != null; entry = entries.getNextEntry()) {
+        names.add(entry.getName());
+        try (PDDocument pdf = PDDocument.load(entries.readAllBytes())) {
+          values.add(
+              pdf.getDocumentCatalog().getAcroForm().getField("formfield").getValueAsString());
+        }
+      }
+    }
+    assertThat(names)
+        .containsExactly(
+            String.format("applicant-%d.pdf", one.id),
+            String.format("applicant-%d.pdf", two.id),
+            String.format("applicant-%d.pdf", three.id),
+            String.format("applicant-%d.pdf", unnamed.id));
+    assertThat(values).containsExactly("one", "two", "three", "");
+  }
+
+  private String run(Source<ByteString, ?> source) {
+    return collect(source).utf8String();
+  }
+
+  private ByteString collect(Source<ByteString, ?> source) {
+    return source
+        .runFold(ByteString.emptyByteString(), ByteString::concat, instanceOf(Materializer.class))
+        .toCompletableFuture()
+        .join();
+  }
+
+  private Applicant saveApplicant(String name) {
+    Applicant applicant = new Applicant();
+    applicant.getApplicantData().putString(Path.create("applicant.name"), name);
+    applicant.save();
+    return applicant;
+  }
+}
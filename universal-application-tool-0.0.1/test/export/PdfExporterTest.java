@@ -4,9 +4,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableMap;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import models.Applicant;
 import models.Program;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -23,7 +26,6 @@ import services.program.ProgramDefinition;
 public class PdfExporterTest {
   private static Program fakeProgramWithPdfExport;
   private Applicant fakeApplicant;
-  private Writer writer;
   private ByteArrayOutputStream inMemoryBytes;
   private static final String APPLICANT_VALUE = "this will get filled into the form.";
 
@@ -58,9 +60,8 @@ public class PdfExporterTest {
   }
 
   @Before
-  public void createInMemoryWriter() {
+  public void createInMemoryStream() {
     this.inMemoryBytes = new ByteArrayOutputStream();
-    this.writer = new OutputStreamWriter(inMemoryBytes, StandardCharsets.UTF_8);
   }
 
   @Test
@@ -78,8 +79,7 @@ public class PdfExporterTest {
     List<Exporter> exporters = exporterFactory.createExporters(this.fakeProgramWithPdfExport);
     assertThat(exporters).hasSize(1);
     assertThat(exporters.get(0)).isInstanceOf(PdfExporter.class);
-    exporters.get(0).export(fakeApplicant, writer);
-    writer.close();
+    exporters.get(0).export(fakeApplicant, inMemoryBytes);
 
     // Load output document and check value.
     PDDocument outputDocument = PDDocument.load(inMemoryBytes.toByteArray());
@@ -87,4 +87,54 @@ public class PdfExporterTest {
     assertThat(outputField).isNotNull();
     assertThat(outputField.getValueAsString()).isEqualTo(APPLICANT_VALUE);
   }
+
+  @Test
+  public void export_doesNotCarryValuesOverBetweenApplicants() throws IOException {
+    PdfExporter exporter =
+        new PdfExporter(
+            new File("test/export/base.pdf").toURI(),
+            ImmutableMap.of("formfield", "$.applicant.formValue"),
+            1);
+    exporter.export(fakeApplicant, new ByteArrayOutputStream());
+
+    exporter.export(new Applicant(), inMemoryBytes);
+
+    assertThat(formfieldValue(inMemoryBytes.toByteArray())).isEmpty();
+  }
+
+  @Test
+  public void export_concurrentExportsAreEachFilledForTheirApplicant() throws Exception {
+    PdfExporter exporter =
+        new PdfExporter(
+            new File("test/export/base.pdf").toURI(),
+            ImmutableMap.of("formfield", "$.applicant.formValue"),
+            2);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<byte[]>> pdfs = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        Applicant applicant = new Applicant();
+        applicant.getApplicantData().putString(Path.create("applicant.formValue"), "value " + i);
+        pdfs.add(
+            executor.submit(
+                () -> {
+                  ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+                  exporter.export(applicant, pdf);
+                  return pdf.toByteArray();
+                }));
+      }
+
+      for (int i = 0; i < 8; i++) {
+        assertThat(formfieldValue(pdfs.get(i).get())).isEqualTo("value " + i);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static String formfieldValue(byte[] pdf) throws IOException {
+    try (PDDocument document = PDDocument.load(pdf)) {
+      return document.getDocumentCatalog().getAcroForm().getField("formfield").getValueAsString();
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.stream.Materializer;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import models.Applicant;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Before;
+import org.junit.Test;
+import repository.StoredFileRepository;
+import repository.WithPostgresContainer;
+import services.applicant.ApplicantService;
+import services.program.PdfExportConfig;
+
+public class PdfPacketExporterTest extends WithPostgresContainer {
+  private static final File BASE_PDF = new File("test/export/base.pdf");
+  private static final PdfExportConfig CONFIG =
+      PdfExportConfig.builder()
+          .setBaseDocument(BASE_PDF.toURI())
+          .setMappings(ImmutableMap.of("formfield", "applicant.name"))
+          .build();
+
+  private StoredFileRepository storedFileRepository;
+  private PdfPacketExporter exporter;
+
+  @Before
+  public void setup() {
+    storedFileRepository = mock(StoredFileRepository.class);
+    exporter =
+        new PdfPacketExporter(
+            instanceOf(ApplicantService.class),
+            storedFileRepository,
+            instanceOf(ExportExecutionContext.class),
+            instanceOf(ExporterFactory.class),
+            instanceOf(Materializer.class));
+  }
+
+  @Test
+  public void exportToFile_appendsEachApplicantsFormInIdOrder() throws IOException {
+    saveApplicant("Alice");
+    saveApplicant("Bob");
+    saveApplicant("Carol");
+
+    Path packet = exporter.exportToFile(CONFIG).toCompletableFuture().join();
+
+    try (PDDocument base = PDDocument.load(BASE_PDF);
+        PDDocument document = PDDocument.load(packet.toFile())) {
+      assertThat(document.getNumberOfPages()).isEqualTo(3 * base.getNumberOfPages());
+      String text = new PDFTextStripper().getText(document);
+      assertThat(text.indexOf("Alice")).isNotNegative().isLessThan(text.indexOf("Bob"));
+      assertThat(text.indexOf("Bob")).isLessThan(text.indexOf("Carol"));
+    } finally {
+      Files.delete(packet);
+    }
+  }
+
+  @Test
+  public void exportToStoredFile_storesThePacketThenDeletesIt() {
+    saveApplicant("Alice");
+    AtomicReference<Path> stored = new AtomicReference<>();
+    when(storedFileRepository.insertFromFile(eq("packet.pdf"), any(Path.class)))
+        .thenAnswer(
+            invocation -> {
+              Path packet = invocation.getArgument(1);
+              assertThat(packet).exists();
+              stored.set(packet);
+              return CompletableFuture.completedFuture(7L);
+            });
+
+    long fileId = exporter.exportToStoredFile(CONFIG, "packet.pdf").toCompletableFuture().join();
+
+    assertThat(fileId).isEqualTo(7L);
+    assertThat(stored.get()).doesNotExist();
+  }
+
+  private void saveApplicant(String name) {
+    Applicant applicant = new Applicant();
+    applicant.getApplicantData().putString(services.Path.create("applicant.name"), name);
+    applicant.save();
+  }
+}
@@ -2,12 +2,25 @@ package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import akka.japi.Pair;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.util.ByteString;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import models.Account;
 import models.Applicant;
 import org.junit.Before;
 import org.junit.Test;
 import services.Path;
+import services.applicant.ApplicantData;
+import services.program.Column;
 
 public class ApplicantRepositoryTest extends WithPostgresContainer {
 
@@ -35,6 +48,103 @@ public class ApplicantRepositoryTest extends WithPostgresContainer {
     assertThat(allApplicants).containsExactly(one, two);
   }
 
+  @Test
+  public void streamApplicants_readsAllPagesInIdOrder() {
+    Applicant one = saveApplicant("one");
+    Applicant two = saveApplicant("two");
+    Applicant three = saveApplicant("three");
+
+    List<Applicant> streamed =
+        repo.streamApplicants(2)
+            .runWith(Sink.seq(), instanceOf(Materializer.class))
+            .toCompletableFuture()
+            .join();
+
+    assertThat(streamed).containsExactly(one, two, three);
+  }
+
+  @Test
+  public void streamApplicants_empty() {
+    List<Applicant> streamed =
+        repo.streamApplicants()
+            .runWith(Sink.seq(), instanceOf(Materializer.class))
+            .toCompletableFuture()
+            .join();
+
+    assertThat(streamed).isEmpty();
+  }
+
+  @Test
+  public void partitionApplicantIds_coversIdRangeInOrder() {
+    Applicant one = saveApplicant("one");
+    saveApplicant("two");
+    Applicant three = saveApplicant("three");
+
+    List<Pair<Long, Long>> partitions =
+        repo.partitionApplicantIds(2)
+            .runWith(Sink.seq(), instanceOf(Materializer.class))
+            .toCompletableFuture()
+            .join();
+
+    assertThat(partitions)
+        .containsExactly(Pair.create(one.id, one.id + 1), Pair.create(three.id, three.id));
+    assertThat(repo.listApplicantsInIdRange(one.id, one.id + 1).toCompletableFuture().join())
+        .extracting(applicant -> applicant.id)
+        .containsExactly(one.id, one.id + 1);
+  }
+
+  @Test
+  public void partitionApplicantIds_empty() {
+    List<Pair<Long, Long>> partitions =
+        repo.partitionApplicantIds(2)
+            .runWith(Sink.seq(), instanceOf(Materializer.class))
+            .toCompletableFuture()
+            .join();
+
+    assertThat(partitions).isEmpty();
+  }
+
+  @Test
+  public void streamApplicantsAsCsv_extractsColumnsInIdOrder() {
+    saveApplicant("one");
+    saveApplicant("two, \"quoted\"");
+    Applicant noName = new Applicant();
+    noName.save();
+    ImmutableList<Column> columns =
+        ImmutableList.of(
+            Column.builder().setHeader("Name").setJsonPath("applicant.name").build(),
+            Column.builder().setHeader("Applicant's, \"data\"").setJsonPath("applicant").build());
+
+    String csv =
+        repo.streamApplicantsAsCsv(columns)
+            .runFold(
+                ByteString.emptyByteString(), ByteString::concat, instanceOf(Materializer.class))
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+
+    assertThat(csv)
+        .isEqualTo(
+            "Name,\"Applicant's, \"\"data\"\"\"\n"
+                + "one,COLUMN_EMPTY\n"
+                + "\"two, \"\"quoted\"\"\",COLUMN_EMPTY\n"
+                + "COLUMN_EMPTY,COLUMN_EMPTY\n");
+  }
+
+  @Test
+  public void buildCsvCopyStatement_quotesPaths() {
+    String statement =
+        ApplicantRepository.buildCsvCopyStatement(
+            ImmutableList.of(Column.builder().setHeader("x").setJsonPath("it's.here").build()));
+
+    assertThat(statement)
+        .isEqualTo(
+            "copy (select case when jsonb_typeof(object #> '{\"it''s\",\"here\"}') in"
+                + " ('string', 'number', 'boolean') then object #>> '{\"it''s\",\"here\"}'"
+                + " else 'COLUMN_EMPTY' end from applicants order by id) to stdout with (format"
+                + " csv)");
+  }
+
   @Test
   public void lookupApplicant_returnsEmptyOptionalWhenApplicantNotFound() {
     Optional<Applicant> found = repo.lookupApplicant(1L).toCompletableFuture().join();
@@ -52,6 +162,55 @@ public class ApplicantRepositoryTest extends WithPostgresContainer {
     assertThat(found).hasValue(two);
   }
 
+  @Test
+  public void lookupApplicants_findsAllInOneQuery() {
+    Applicant one = saveApplicant("Alice");
+    saveApplicant("Bob");
+    Applicant three = saveApplicant("Carol");
+
+    ImmutableMap<Long, Applicant> found =
+        repo.lookupApplicants(ImmutableSet.of(one.id, three.id, 12345L))
+            .toCompletableFuture()
+            .join();
+
+    assertThat(found).containsOnlyKeys(one.id, three.id);
+    assertThat(found.get(three.id)).isEqualTo(three);
+  }
+
+  @Test
+  public void lookupApplicants_empty() {
+    assertThat(repo.lookupApplicants(ImmutableSet.of()).toCompletableFuture().join()).isEmpty();
+  }
+
+  @Test
+  public void lookupApplicant_byEmail_findsMostRecentlyCreatedApplicant() {
+    Account account = new Account();
+    account.setEmailAddress("alice@example.com");
+    account.save();
+    saveApplicant(account, Instant.ofEpochSecond(1000));
+    Applicant newest = saveApplicant(account, Instant.ofEpochSecond(3000));
+    saveApplicant(account, Instant.ofEpochSecond(2000));
+
+    Optional<Applicant> found =
+        repo.lookupApplicant("alice@example.com").toCompletableFuture().join();
+
+    assertThat(found.map(applicant -> applicant.id)).hasValue(newest.id);
+    assertThat(repo.lookupApplicant("bob@example.com").toCompletableFuture().join()).isEmpty();
+  }
+
+  @Test
+  public void lookupApplicantForAccount_findsMostRecentlyCreatedApplicant() {
+    Account account = new Account();
+    account.save();
+    Applicant newest = saveApplicant(account, Instant.ofEpochSecond(2000));
+    saveApplicant(account, Instant.ofEpochSecond(1000));
+
+    Optional<Applicant> found =
+        repo.lookupApplicantForAccount(account.id).toCompletableFuture().join();
+
+    assertThat(found.map(applicant -> applicant.id)).hasValue(newest.id);
+  }
+
   @Test
   public void insertApplicant() {
     Applicant applicant = new Applicant();
@@ -81,6 +240,27 @@ public class ApplicantRepositoryTest extends WithPostgresContainer {
     assertThat(a.getApplicantData().readString(Path.create(path))).hasValue("1/1/2021");
   }
 
+  @Test
+  public void updateApplicant_onlyWritesChangedPaths() {
+    Applicant applicant = saveApplicant("Alice");
+    Applicant stale = repo.lookupApplicant(applicant.id).toCompletableFuture().join().get();
+    Path birthdate = Path.create("applicant.birthdate");
+    applicant.getApplicantData().putString(birthdate, "1/1/2021");
+    applicant.getApplicantData().setPreferredLocale(Locale.FRENCH);
+    stale.getApplicantData().putString(Path.create("applicant.color"), "blue");
+
+    repo.updateApplicant(applicant).toCompletableFuture().join();
+    repo.updateApplicant(stale).toCompletableFuture().join();
+
+    ApplicantData found =
+        repo.lookupApplicant(applicant.id).toCompletableFuture().join().get().getApplicantData();
+    assertThat(found.readString(Path.create("applicant.name"))).hasValue("Alice");
+    assertThat(found.readString(birthdate)).hasValue("1/1/2021");
+    assertThat(found.readString(Path.create("applicant.color"))).hasValue("blue");
+    assertThat(found.preferredLocale()).isEqualTo(Locale.FRENCH);
+    assertThat(applicant.getApplicantData().isDirty()).isFalse();
+  }
+
   @Test
   public void lookupApplicantSync_returnsEmptyOptionalWhenApplicantNotFound() {
     Optional<Applicant> found = repo.lookupApplicantSync(1L);
@@ -104,4 +284,12 @@ public class ApplicantRepositoryTest extends WithPostgresContainer {
     applicant.save();
     return applicant;
   }
+
+  private Applicant saveApplicant(Account account, Instant createdTime) {
+    Applicant applicant = new Applicant();
+    applicant.getApplicantData().setCreatedTime(createdTime);
+    applicant.setAccount(account);
+    applicant.save();
+    return applicant;
+  }
 }
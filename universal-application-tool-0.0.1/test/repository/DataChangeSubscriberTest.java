@@ -0,0 +1,30 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import java.time.Duration;
+import org.junit.Test;
+import play.db.ebean.EbeanConfig;
+
+public class DataChangeSubscriberTest extends WithPostgresContainer {
+
+  @Test
+  public void publishedChangesAdvanceDataVersions() {
+    EbeanServer ebeanServer = Ebean.getServer(instanceOf(EbeanConfig.class).defaultServer());
+    long questionsVersion = DataVersions.questions();
+
+    DataChange.QUESTIONS.publish(ebeanServer);
+
+    await().atMost(Duration.ofSeconds(10)).until(() -> DataVersions.questions() > questionsVersion);
+  }
+
+  @Test
+  public void fromPayload_treatsUnknownPayloadsAsChangesToEverything() {
+    assertThat(DataChange.fromPayload("PROGRAMS")).isEqualTo(DataChange.PROGRAMS);
+    assertThat(DataChange.fromPayload("something else")).isEqualTo(DataChange.ALL);
+    assertThat(DataChange.fromPayload(null)).isEqualTo(DataChange.ALL);
+  }
+}
@@ -1,13 +1,21 @@
 package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.OptimisticLockException;
 import models.Program;
+import models.Question;
 import org.junit.Before;
 import org.junit.Test;
+import services.program.BlockDefinition;
+import services.program.Predicate;
+import services.program.ProgramDefinition;
+import services.program.ProgramQuestionDefinition;
+import support.ProgramBuilder;
 
 public class ProgramRepositoryTest extends WithPostgresContainer {
 
@@ -73,4 +81,102 @@ public class ProgramRepositoryTest extends WithPostgresContainer {
     assertThat(updated.getProgramDefinition().id()).isEqualTo(existing.id);
     assertThat(updated.getProgramDefinition().name()).isEqualTo("new name");
   }
+
+  @Test
+  public void blockEdits_onlyChangeThatBlock() {
+    Question one = resourceCreator().insertQuestion("path.one");
+    Question two = resourceCreator().insertQuestion("path.two");
+    ProgramDefinition program =
+        ProgramBuilder.newProgram()
+            .withBlock("first")
+            .withQuestion(one)
+            .withBlock("second")
+            .withQuestion(two)
+            .buildDefinition();
+    long programId = program.id();
+
+    repo.updateBlockSync(
+        programId,
+        program.blockDefinitions().get(0).toBuilder()
+            .setName("renamed")
+            .setHidePredicate(Predicate.create("$.applicant.name"))
+            .build());
+    repo.setBlockQuestionsSync(programId, 2L, ImmutableList.of(one.id, two.id));
+    repo.insertBlockSync(
+        programId,
+        BlockDefinition.builder()
+            .setId(3L)
+            .setName("third")
+            .setDescription("")
+            .setProgramQuestionDefinitions(ImmutableList.of())
+            .build());
+
+    ImmutableList<BlockDefinition> blocks = lookupBlocks(programId);
+    assertThat(blocks)
+        .extracting(BlockDefinition::name)
+        .containsExactly("renamed", "second", "third");
+    assertThat(blocks.get(0).hidePredicate()).hasValue(Predicate.create("$.applicant.name"));
+    assertThat(blocks.get(0).programQuestionDefinitions().get(0).id()).isEqualTo(one.id);
+    assertThat(blocks.get(1).programQuestionDefinitions())
+        .extracting(ProgramQuestionDefinition::id)
+        .containsExactly(one.id, two.id);
+
+    repo.deleteBlockSync(programId, 2L);
+
+    assertThat(lookupBlocks(programId)).extracting(BlockDefinition::id).containsExactly(1L, 3L);
+  }
+
+  @Test
+  public void insertBlockSync_existingBlockId_throwsAndWritesNothing() {
+    Question question = resourceCreator().insertQuestion("path.one");
+    ProgramDefinition program = ProgramBuilder.newProgram().withBlock("first").buildDefinition();
+
+    assertThatThrownBy(
+            () ->
+                repo.insertBlockSync(
+                    program.id(),
+                    BlockDefinition.builder()
+                        .setId(1L)
+                        .setName("duplicate")
+                        .setDescription("")
+                        .setProgramQuestionDefinitions(
+                            ImmutableList.of(
+                                ProgramQuestionDefinition.create(
+                                    question.getQuestionDefinition())))
+                        .build()))
+        .isInstanceOf(OptimisticLockException.class);
+
+    ImmutableList<BlockDefinition> blocks = lookupBlocks(program.id());
+    assertThat(blocks).extracting(BlockDefinition::name).containsExactly("first");
+    assertThat(blocks.get(0).programQuestionDefinitions()).isEmpty();
+  }
+
+  @Test
+  public void lookupProgramIdsUsingQuestion() {
+    Question used = resourceCreator().insertQuestion("path.used");
+    Question unused = resourceCreator().insertQuestion("path.unused");
+    ProgramDefinition first =
+        ProgramBuilder.newProgram("first").withBlock().withQuestion(used).buildDefinition();
+    ProgramDefinition second =
+        ProgramBuilder.newProgram("second")
+            .withBlock()
+            .withBlock()
+            .withQuestion(used)
+            .buildDefinition();
+    ProgramBuilder.newProgram("third").withBlock().buildDefinition();
+
+    assertThat(repo.lookupProgramIdsUsingQuestion(used.id).toCompletableFuture().join())
+        .containsExactlyInAnyOrder(first.id(), second.id());
+    assertThat(repo.lookupProgramIdsUsingQuestion(unused.id).toCompletableFuture().join())
+        .isEmpty();
+  }
+
+  private ImmutableList<BlockDefinition> lookupBlocks(long programId) {
+    return repo.lookupProgram(programId)
+        .toCompletableFuture()
+        .join()
+        .get()
+        .getProgramDefinition()
+        .blockDefinitions();
+  }
 }
@@ -4,12 +4,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableMap;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ebean.Transaction;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import models.Question;
 import org.junit.Before;
 import org.junit.Test;
+import play.db.ebean.EbeanConfig;
 import services.Path;
 import services.question.QuestionDefinition;
 import services.question.QuestionDefinitionBuilder;
@@ -77,6 +82,8 @@ public class QuestionRepositoryTest extends WithPostgresContainer {
     assertThat(pathConflicts(path, "other.applicant.address")).isFalse();
     assertThat(pathConflicts(path, "other.applicant.address.street")).isFalse();
     assertThat(pathConflicts(path, "other.applicant.address.some.other.field")).isFalse();
+    assertThat(pathConflicts(path, "applicant.add")).isFalse();
+    assertThat(pathConflicts(path, "applicant.addresses")).isFalse();
   }
 
   private boolean pathConflicts(String path, String otherPath) {
@@ -113,6 +120,75 @@ public class QuestionRepositoryTest extends WithPostgresContainer {
     assertThat(found).hasValue(questionOne);
   }
 
+  @Test
+  public void findConflictingQuestion_findsPrefixesInBothDirections() {
+    Question parent = resourceCreator().insertQuestion("Applicant.Address");
+    Question child = resourceCreator().insertQuestion("applicant.name.first");
+
+    assertThat(
+            repo.findConflictingQuestion(Path.create("applicant.address.street"))
+                .toCompletableFuture()
+                .join())
+        .hasValue(parent);
+    assertThat(
+            repo.findConflictingQuestion(Path.create("applicant.name"))
+                .toCompletableFuture()
+                .join())
+        .hasValue(child);
+    assertThat(
+            repo.findConflictingQuestion(Path.create("applicant_name"))
+                .toCompletableFuture()
+                .join())
+        .isEmpty();
+  }
+
+  @Test
+  public void findConflictingQuestion_ignoresPrefixesWithinASegment() {
+    resourceCreator().insertQuestion("applicant.na");
+    resourceCreator().insertQuestion("applicant.names");
+
+    Optional<Question> found =
+        repo.findConflictingQuestion(Path.create("applicant.name")).toCompletableFuture().join();
+
+    assertThat(found).isEmpty();
+  }
+
+  @Test
+  public void findConflictingQuestion_usesPathIndexUnderGenericPlan() {
+    // Number the placeholders for a server-side prepared statement.
+    String condition = QuestionRepository.conflictCondition(2);
+    StringBuilder numbered = new StringBuilder();
+    int parameter = 0;
+    for (char c : condition.toCharArray()) {
+      numbered.append(c == '?' ? "$" + ++parameter : String.valueOf(c));
+    }
+    EbeanServer server = Ebean.getServer(instanceOf(EbeanConfig.class).defaultServer());
+    try (Transaction transaction = server.beginTransaction()) {
+      server.createSqlUpdate("set local plan_cache_mode = force_generic_plan").execute();
+      server.createSqlUpdate("set local enable_seqscan = off").execute();
+      server
+          .createSqlUpdate(
+              "prepare conflicts (text, text, text, text) as select id from questions where "
+                  + numbered)
+          .execute();
+      try {
+        String plan =
+            server
+                .createSqlQuery(
+                    "explain execute conflicts('applicant.name.', 'applicant.name/', 'applicant',"
+                        + " 'applicant.name')")
+                .findList()
+                .stream()
+                .map(row -> String.valueOf(row.values().iterator().next()))
+                .collect(Collectors.joining("\n"));
+
+        assertThat(plan).contains("index_questions_by_lower_path").doesNotContain("Seq Scan");
+      } finally {
+        server.createSqlUpdate("deallocate conflicts").execute();
+      }
+    }
+  }
+
   @Test
   public void lookupQuestionByPath_returnsEmptyOptionalWhenQuestionNotFound() {
     Optional<Question> found =
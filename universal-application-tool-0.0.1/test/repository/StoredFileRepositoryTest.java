@@ -3,9 +3,13 @@ package repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import models.StoredFile;
 import org.junit.Test;
 import play.db.ebean.EbeanConfig;
@@ -32,4 +36,26 @@ public class StoredFileRepositoryTest extends WithPostgresContainer {
     assertThat(f.getName()).isEqualTo("file name");
     assertThat(f.getContent()).isEqualTo(content);
   }
+
+  @Test
+  public void insertFromFile_uploadsTheFile() throws IOException {
+    AmazonS3Client s3ClientMock = mock(AmazonS3Client.class);
+    StoredFileRepository repo =
+        new StoredFileRepository(
+            instanceOf(EbeanConfig.class),
+            s3ClientMock,
+            instanceOf(DatabaseExecutionContext.class));
+    Path content = Files.createTempFile("stored-file", ".txt");
+
+    try {
+      long id = repo.insertFromFile("file name", content).toCompletableFuture().join();
+
+      verify(s3ClientMock).putObject("file name", content);
+      when(s3ClientMock.getObject("file name")).thenReturn(new byte[0]);
+      assertThat(repo.lookupFile(id).toCompletableFuture().join().get().getName())
+          .isEqualTo("file name");
+    } finally {
+      Files.delete(content);
+    }
+  }
 }
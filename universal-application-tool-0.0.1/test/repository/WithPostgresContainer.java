@@ -8,6 +8,8 @@ import io.ebean.EbeanServer;
 import models.Account;
 import models.Applicant;
 import models.Program;
+import models.ProgramBlock;
+import models.ProgramBlockQuestion;
 import models.Question;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -59,7 +61,14 @@ public class WithPostgresContainer {
   public void truncateTables() {
     EbeanConfig config = app.injector().instanceOf(EbeanConfig.class);
     EbeanServer server = Ebean.getServer(config.defaultServer());
-    server.truncate(Applicant.class, Program.class, Question.class, Account.class);
+    server.truncate(
+        Applicant.class,
+        ProgramBlockQuestion.class,
+        ProgramBlock.class,
+        Program.class,
+        Question.class,
+        Account.class);
+    DataVersions.allChanged();
   }
 
   @Before
@@ -91,6 +91,23 @@ public class PathTest {
         .containsExactly(Path.create("animals"), Path.create("animals.favorites"));
   }
 
+  @Test
+  public void create_returnsCanonicalInstance() {
+    assertThat(Path.create("applicant.name")).isSameAs(Path.create("applicant.name"));
+    assertThat(Path.create("$.applicant.name")).isEqualTo(Path.create("applicant.name"));
+    assertThat(Path.create("")).isSameAs(Path.empty());
+  }
+
+  @Test
+  public void startsWith() {
+    Path path = Path.create("animals.favorites.dog");
+    assertThat(path.startsWith(Path.create("animals.favorites"))).isTrue();
+    assertThat(path.startsWith(path)).isTrue();
+    assertThat(path.startsWith(Path.empty())).isTrue();
+    assertThat(path.startsWith(Path.create("animals.fav"))).isFalse();
+    assertThat(Path.create("animals").startsWith(path)).isFalse();
+  }
+
   @Test
   public void pathBuilder() {
     Path path = Path.builder().setPath("applicant.my.path").build();
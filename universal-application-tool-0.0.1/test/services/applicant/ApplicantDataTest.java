@@ -2,6 +2,7 @@ package services.applicant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.testing.EqualsTester;
 import java.time.Instant;
@@ -32,6 +33,33 @@ public class ApplicantDataTest {
         .testEquals();
   }
 
+  @Test
+  public void equality_ignoresKeyOrder() {
+    ApplicantData data = new ApplicantData("{\"applicant\":{\"a\":1,\"b\":2},\"metadata\":{}}");
+    ApplicantData reordered =
+        new ApplicantData("{\"metadata\":{},\"applicant\":{\"b\":2,\"a\":1}}");
+
+    assertThat(data).isEqualTo(reordered);
+    assertThat(data.hashCode()).isEqualTo(reordered.hashCode());
+
+    reordered.putInteger(Path.create("applicant.a"), 3);
+
+    assertThat(data).isNotEqualTo(reordered);
+  }
+
+  @Test
+  public void createdTime_readsUnparsedData() {
+    String testData =
+        "{\"applicant\":{\"name\":\"Alice\"},"
+            + "\"metadata\":{\"created_time\":\"1970-01-01T02:46:40Z\"}}";
+    ApplicantData data = new ApplicantData(testData);
+
+    assertThat(data.hasCreatedTime()).isTrue();
+    assertThat(data.getCreatedTime()).isEqualTo(Instant.ofEpochMilli(10000000L));
+    assertThat(data.asJsonString()).isEqualTo(testData);
+    assertThat(new ApplicantData().hasCreatedTime()).isFalse();
+  }
+
   @Test
   public void preferredLocale_defaultsToEnglish() {
     ApplicantData data = new ApplicantData();
@@ -127,4 +155,105 @@ public class ApplicantDataTest {
 
     assertThat(found).isEmpty();
   }
+
+  @Test
+  public void put_replacesAnObjectWithAScalar() {
+    ApplicantData data = new ApplicantData();
+    data.putString(Path.create("applicant.favorites.food"), "apple");
+
+    data.putString(Path.create("applicant.favorites"), "none");
+
+    assertThat(data.hasPath(Path.create("applicant.favorites.food"))).isFalse();
+    assertThat(data.asJsonString())
+        .isEqualTo("{\"applicant\":{\"favorites\":\"none\"},\"metadata\":{}}");
+  }
+
+  @Test
+  public void hasPath_findsObjectsAndScalars() {
+    String testData = "{ \"applicant\": { \"favorites\": { \"color\": \"orange\"} } }";
+    ApplicantData data = new ApplicantData(testData);
+
+    assertThat(data.hasPath(Path.create("applicant.favorites"))).isTrue();
+    assertThat(data.hasPath(Path.create("applicant.favorites.color"))).isTrue();
+    assertThat(data.hasPath(Path.create("applicant.favorites.food"))).isFalse();
+  }
+
+  @Test
+  public void asJsonString_roundTripsParsedData() {
+    String testData =
+        "{\"applicant\":{\"name\":{\"first\":\"Alice\"},\"age\":30,\"empty\":{}},\"metadata\":{}}";
+
+    assertThat(new ApplicantData(testData).asJsonString()).isEqualTo(testData);
+  }
+
+  @Test
+  public void dirtyPaths_recordsOutermostCreatedObject() {
+    ApplicantData data = new ApplicantData();
+
+    data.putString(Path.create("applicant.favorites.color.primary"), "orange");
+    data.putString(Path.create("applicant.favorites.color.secondary"), "blue");
+
+    assertThat(data.isDirty()).isTrue();
+    assertThat(data.dirtyPaths()).containsExactly(Path.create("applicant.favorites"));
+    assertThat(data.asJsonString(Path.create("applicant.favorites")))
+        .isEqualTo("{\"color\":{\"primary\":\"orange\",\"secondary\":\"blue\"}}");
+  }
+
+  @Test
+  public void dirtyPaths_ignoresUnchangedValues() {
+    String testData = "{ \"applicant\": { \"name\": \"Alice\", \"age\": 30 }, \"metadata\": {} }";
+    ApplicantData data = new ApplicantData(testData);
+
+    data.putString(Path.create("applicant.name"), "Alice");
+    data.putInteger(Path.create("applicant.age"), 30);
+    data.setPreferredLocale(Locale.ENGLISH);
+
+    assertThat(data.isDirty()).isFalse();
+  }
+
+  @Test
+  public void clearDirty() {
+    ApplicantData data = new ApplicantData();
+    data.putString(Path.create("applicant.name"), "Alice");
+    data.setPreferredLocale(Locale.FRENCH);
+
+    data.clearDirty();
+
+    assertThat(data.isDirty()).isFalse();
+    assertThat(data.dirtyPaths()).isEmpty();
+  }
+
+  @Test
+  public void mergeFrom_copiesMissingDataAndReportsConflicts() {
+    ApplicantData data =
+        new ApplicantData(
+            "{\"applicant\":{\"name\":\"Alice\",\"address\":\"home\"},\"metadata\":{}}");
+    ApplicantData other =
+        new ApplicantData(
+            "{\"applicant\":{\"name\":\"Bob\",\"address\":{\"city\":\"Seattle\"},"
+                + "\"favorites\":{\"color\":\"blue\"}},\"metadata\":{}}");
+
+    ImmutableList<Path> conflicts = data.mergeFrom(other);
+
+    assertThat(conflicts)
+        .containsExactly(Path.create("applicant.name"), Path.create("applicant.address"));
+    assertThat(data.readString(Path.create("applicant.name"))).hasValue("Alice");
+    assertThat(data.readString(Path.create("applicant.address"))).hasValue("home");
+    assertThat(data.readString(Path.create("applicant.favorites.color"))).hasValue("blue");
+    assertThat(data.dirtyPaths()).containsExactly(Path.create("applicant.favorites"));
+  }
+
+  @Test
+  public void mergeFrom_mergesListsWithoutDuplicates() {
+    ApplicantData data =
+        new ApplicantData("{\"applicant\":{\"pets\":[\"cat\",\"dog\"]},\"metadata\":{}}");
+    ApplicantData other =
+        new ApplicantData("{\"applicant\":{\"pets\":[\"dog\",\"fish\"]},\"metadata\":{}}");
+
+    assertThat(data.mergeFrom(other)).isEmpty();
+    assertThat(data.mergeFrom(other)).isEmpty();
+
+    assertThat(data.asJsonString())
+        .isEqualTo("{\"applicant\":{\"pets\":[\"cat\",\"dog\",\"fish\"]},\"metadata\":{}}");
+  }
 }
@@ -16,6 +16,7 @@ import repository.WithPostgresContainer;
 import services.ErrorAnd;
 import services.Path;
 import services.program.PathNotInBlockException;
+import services.program.Predicate;
 import services.program.ProgramBlockNotFoundException;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
@@ -87,6 +88,82 @@ public class ApplicantServiceImplTest extends WithPostgresContainer {
         applicantRepository.lookupApplicantSync(applicant.id).get().getApplicantData();
 
     assertThat(applicantDataAfter.asJsonString()).contains("Alice", "Doe");
+    assertThat(
+            BlockCompletion.isComplete(
+                applicantDataAfter,
+                programDefinition.id(),
+                programDefinition.blockDefinitions().get(0)))
+        .isTrue();
+  }
+
+  @Test
+  public void stageAndUpdateIfValid_answersThatHideTheBlock_areStillValidated() throws Exception {
+    programDefinition =
+        programService.setBlockHidePredicate(
+            programDefinition.id(), 1L, Predicate.create("$.applicant.name.last"));
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    ImmutableSet<Update> updates =
+        ImmutableSet.of(
+            Update.create(Path.create("applicant.name.first"), "Alice"),
+            Update.create(Path.create("applicant.name.last"), ""));
+
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), 1L, updates)
+        .toCompletableFuture()
+        .join();
+
+    ApplicantData applicantDataAfter =
+        applicantRepository.lookupApplicantSync(applicant.id).get().getApplicantData();
+    assertThat(applicantDataAfter.asJsonString()).doesNotContain("Alice");
+  }
+
+  @Test
+  public void stageAndUpdateIfValid_answersThatHideTheBlock_doNotCompleteIt() throws Exception {
+    programDefinition =
+        programService.setBlockHidePredicate(
+            programDefinition.id(), 1L, Predicate.create("$.applicant.name.last"));
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    ImmutableSet<Update> updates =
+        ImmutableSet.of(
+            Update.create(Path.create("applicant.name.first"), "Alice"),
+            Update.create(Path.create("applicant.name.last"), "Doe"));
+
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), 1L, updates)
+        .toCompletableFuture()
+        .join();
+
+    ApplicantData applicantDataAfter =
+        applicantRepository.lookupApplicantSync(applicant.id).get().getApplicantData();
+    assertThat(applicantDataAfter.asJsonString()).contains("Alice", "Doe");
+    assertThat(
+            BlockCompletion.isComplete(
+                applicantDataAfter,
+                programDefinition.id(),
+                programDefinition.blockDefinitions().get(0)))
+        .isFalse();
+  }
+
+  @Test
+  public void stageAndUpdateIfValid_optionalBlockWithoutAnswers_completesIt() throws Exception {
+    programDefinition =
+        programService.setBlockOptionalPredicate(
+            programDefinition.id(), 1L, Predicate.create("$.applicant"));
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), 1L, ImmutableSet.of())
+        .toCompletableFuture()
+        .join();
+
+    ApplicantData applicantDataAfter =
+        applicantRepository.lookupApplicantSync(applicant.id).get().getApplicantData();
+    assertThat(
+            BlockCompletion.isComplete(
+                applicantDataAfter,
+                programDefinition.id(),
+                programDefinition.blockDefinitions().get(0)))
+        .isTrue();
   }
 
   @Test
@@ -180,6 +257,53 @@ public class ApplicantServiceImplTest extends WithPostgresContainer {
     assertThat(roApplicantProgramService).isInstanceOf(ReadOnlyApplicantProgramService.class);
   }
 
+  @Test
+  public void getReadOnlyApplicantService_afterUpdate_servesTheWrittenData() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    subject
+        .stageAndUpdateIfValid(
+            applicant.id,
+            programDefinition.id(),
+            1L,
+            ImmutableMap.of("applicant.name.first", "Alice", "applicant.name.last", "Doe"))
+        .toCompletableFuture()
+        .join();
+
+    ReadOnlyApplicantProgramService roApplicantProgramService =
+        subject
+            .getReadOnlyApplicantProgramService(applicant.id, programDefinition.id())
+            .toCompletableFuture()
+            .join();
+
+    assertThat(roApplicantProgramService.getFirstIncompleteBlock()).isEmpty();
+  }
+
+  @Test
+  public void getReadOnlyApplicantService_afterAnotherWrite_doesNotServeStaleData() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    subject
+        .stageAndUpdateIfValid(
+            applicant.id,
+            programDefinition.id(),
+            1L,
+            ImmutableMap.of("applicant.name.first", "Alice", "applicant.name.last", "Doe"))
+        .toCompletableFuture()
+        .join();
+
+    // Written without going through the service, as another node would.
+    Applicant elsewhere = applicantRepository.lookupApplicantSync(applicant.id).get();
+    elsewhere.getApplicantData().putString(Path.create("metadata.block_completion"), "reset");
+    applicantRepository.updateApplicant(elsewhere).toCompletableFuture().join();
+
+    ReadOnlyApplicantProgramService roApplicantProgramService =
+        subject
+            .getReadOnlyApplicantProgramService(applicant.id, programDefinition.id())
+            .toCompletableFuture()
+            .join();
+
+    assertThat(roApplicantProgramService.getFirstIncompleteBlock()).isPresent();
+  }
+
   private void createQuestions() {
     questionDefinition =
         questionService
@@ -0,0 +1,90 @@
+package services.applicant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Locale;
+import org.junit.Test;
+import services.Path;
+import services.program.BlockDefinition;
+import services.program.Predicate;
+import services.program.ProgramQuestionDefinition;
+import services.question.AddressQuestionDefinition;
+import services.question.NameQuestionDefinition;
+
+public class BlockTest {
+
+  private static final NameQuestionDefinition NAME_QUESTION =
+      new NameQuestionDefinition(
+          1L,
+          "name",
+          Path.create("applicant.name"),
+          "description",
+          ImmutableMap.of(Locale.ENGLISH, "What is your name?"),
+          ImmutableMap.of());
+  private static final AddressQuestionDefinition ADDRESS_QUESTION =
+      new AddressQuestionDefinition(
+          1L,
+          "address",
+          Path.create("applicant.address"),
+          "description",
+          ImmutableMap.of(Locale.ENGLISH, "What is your address?"),
+          ImmutableMap.of());
+
+  @Test
+  public void hasErrors_emptyBlock_isFalse() {
+    BlockDefinition definition =
+        BlockDefinition.builder().setId(1L).setName("empty").setDescription("").build();
+    Block block = new Block(1L, definition, new ApplicantData());
+
+    assertThat(block.hasErrors()).isFalse();
+  }
+
+  @Test
+  public void hasErrors_unansweredQuestions_isFalse() {
+    Block block = new Block(1L, blockDefinition(), new ApplicantData());
+
+    assertThat(block.hasErrors()).isFalse();
+  }
+
+  @Test
+  public void getValidationResult_reportsInvalidPaths() {
+    ApplicantData applicantData = new ApplicantData();
+    applicantData.putString(NAME_QUESTION.getFirstNamePath(), "Alice");
+    applicantData.putString(NAME_QUESTION.getLastNamePath(), "");
+    applicantData.putString(ADDRESS_QUESTION.getStreetPath(), "123 Main St");
+    applicantData.putString(ADDRESS_QUESTION.getZipPath(), "1234");
+    Block block = new Block(1L, blockDefinition(), applicantData);
+
+    assertThat(block.hasErrors()).isTrue();
+    assertThat(block.getValidationResult().getInvalidPaths())
+        .containsExactly(NAME_QUESTION.getLastNamePath(), ADDRESS_QUESTION.getZipPath());
+  }
+
+  @Test
+  public void getValidationResult_optionalBlock_allowsEmptyAnswersOnly() {
+    ApplicantData applicantData = new ApplicantData();
+    applicantData.putString(NAME_QUESTION.getFirstNamePath(), "");
+    applicantData.putString(NAME_QUESTION.getLastNamePath(), "");
+    applicantData.putString(ADDRESS_QUESTION.getZipPath(), "1234");
+    BlockDefinition definition =
+        blockDefinition().toBuilder()
+            .setOptionalPredicate(Predicate.create("$.applicant.name"))
+            .build();
+    Block block = new Block(1L, definition, applicantData);
+
+    assertThat(block.isOptional()).isTrue();
+    assertThat(block.getValidationResult().getInvalidPaths())
+        .containsExactly(ADDRESS_QUESTION.getZipPath());
+  }
+
+  private static BlockDefinition blockDefinition() {
+    return BlockDefinition.builder()
+        .setId(1L)
+        .setName("block")
+        .setDescription("")
+        .addQuestion(ProgramQuestionDefinition.create(NAME_QUESTION))
+        .addQuestion(ProgramQuestionDefinition.create(ADDRESS_QUESTION))
+        .build();
+  }
+}
@@ -0,0 +1,86 @@
+package services.applicant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import services.Path;
+import services.program.Predicate;
+
+public class CompiledPredicateTest {
+
+  @Test
+  public void forPredicate_compilesOncePerExpression() {
+    CompiledPredicate compiled = CompiledPredicate.forPredicate(Predicate.create("$.applicant.a"));
+
+    assertThat(CompiledPredicate.forPredicate(Predicate.create("$.applicant.a")))
+        .isSameAs(compiled);
+  }
+
+  @Test
+  public void getPaths_stopsAtFiltersAndFunctions() {
+    assertThat(predicate("$.applicant.kids[?(@.age < 5)]").getPaths())
+        .containsExactly(Path.create("applicant.kids"));
+    assertThat(predicate("applicant.name.first").getPaths())
+        .containsExactly(Path.create("applicant.name.first"));
+    assertThat(predicate("$.applicant.kids.length()").getPaths())
+        .containsExactly(Path.create("applicant.kids"));
+    assertThat(predicate("$..name").getPaths()).containsExactly(Path.empty());
+  }
+
+  @Test
+  public void getPaths_dropsPathsNestedInAnother() {
+    assertThat(predicate("$.applicant[?(@.age > $.applicant.limits.age)]").getPaths())
+        .containsExactly(Path.create("applicant"));
+  }
+
+  @Test
+  public void evaluate_definitePath_holdsWhenPresent() {
+    ApplicantData applicantData = new ApplicantData();
+    CompiledPredicate predicate = predicate("$.applicant.name.first");
+
+    assertThat(predicate.evaluate(applicantData)).isFalse();
+
+    applicantData.putString(Path.create("applicant.name.first"), "Alice");
+
+    assertThat(predicate.evaluate(applicantData)).isTrue();
+  }
+
+  @Test
+  public void evaluate_filter_holdsWhenAnythingMatches() {
+    CompiledPredicate predicate = predicate("$.applicant[?(@.age < 18)]");
+    ApplicantData child = new ApplicantData();
+    child.putInteger(Path.create("applicant.age"), 12);
+    ApplicantData adult = new ApplicantData();
+    adult.putInteger(Path.create("applicant.age"), 30);
+
+    assertThat(predicate.evaluate(child)).isTrue();
+    assertThat(predicate.evaluate(adult)).isFalse();
+  }
+
+  @Test
+  public void evaluate_onlyReadsReferencedPaths() {
+    CompiledPredicate predicate = predicate("$.applicant.household[?(@.size > 3)]");
+    ApplicantData first = new ApplicantData();
+    first.putObject(Path.create("applicant.household"), ImmutableMap.of("size", 4));
+    ApplicantData second = new ApplicantData();
+    second.putObject(Path.create("applicant.household"), ImmutableMap.of("size", 4));
+    second.putString(Path.create("applicant.name.first"), "Bob");
+
+    assertThat(predicate.evaluate(first)).isTrue();
+    assertThat(predicate.evaluate(second)).isTrue();
+  }
+
+  @Test
+  public void evaluate_invalidExpression_neverHolds() {
+    ApplicantData applicantData = new ApplicantData();
+    applicantData.putString(Path.create("applicant.x"), "1");
+
+    assertThat(predicate("x < y").evaluate(applicantData)).isFalse();
+    assertThat(predicate("").evaluate(applicantData)).isFalse();
+  }
+
+  private static CompiledPredicate predicate(String expression) {
+    return CompiledPredicate.forPredicate(Predicate.create(expression));
+  }
+}
@@ -8,7 +8,9 @@ import models.Applicant;
 import org.junit.Before;
 import org.junit.Test;
 import repository.WithPostgresContainer;
+import services.Path;
 import services.program.BlockDefinition;
+import services.program.Predicate;
 import services.program.ProgramDefinition;
 
 public class ReadOnlyApplicantProgramServiceImplTest extends WithPostgresContainer {
@@ -56,6 +58,28 @@ public class ReadOnlyApplicantProgramServiceImplTest extends WithPostgresContain
     assertThat(block.getDescription()).isEqualTo("Block Description");
   }
 
+  @Test
+  public void getCurrentBlockList_omitsBlocksWhoseHidePredicateHolds() {
+    ApplicantData applicantData = new Applicant().getApplicantData();
+    subject =
+        new ReadOnlyApplicantProgramServiceImpl(
+            applicantData,
+            programDefinition.toBuilder()
+                .setBlockDefinitions(
+                    ImmutableList.of(
+                        blockA.toBuilder()
+                            .setHidePredicate(Predicate.create("$.applicant.skip_a"))
+                            .build(),
+                        blockB))
+                .build());
+    applicantData.putString(Path.create("applicant.skip_a"), "yes");
+
+    assertThat(subject.getCurrentBlockList()).extracting(Block::getId).containsExactly(321L);
+    assertThat(subject.getBlock(123L)).isEmpty();
+    assertThat(subject.getBlock(321L).map(Block::getId)).hasValue(321L);
+    assertThat(subject.getFirstIncompleteBlock().map(Block::getId)).hasValue(321L);
+  }
+
   @Test
   public void getBlock_blockExists_returnsTheBlock() {
     Optional<Block> maybeBlock = subject.getBlock(123L);
@@ -102,6 +126,30 @@ public class ReadOnlyApplicantProgramServiceImplTest extends WithPostgresContain
     assertThat(maybeBlock).isEmpty();
   }
 
+  @Test
+  public void getFirstIncompleteBlock_skipsCompletedBlocks() {
+    ApplicantData applicantData = new Applicant().getApplicantData();
+    subject = new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition);
+
+    BlockCompletion.markComplete(applicantData, programDefinition.id(), blockA);
+
+    assertThat(subject.getFirstIncompleteBlock().map(Block::getId)).hasValue(321L);
+
+    BlockCompletion.markComplete(applicantData, programDefinition.id(), blockB);
+
+    assertThat(subject.getFirstIncompleteBlock()).isEmpty();
+  }
+
+  @Test
+  public void getFirstIncompleteBlock_completionOfAnotherVersion_doesNotCount() {
+    ApplicantData applicantData = new Applicant().getApplicantData();
+    subject = new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition);
+
+    BlockCompletion.markComplete(applicantData, programDefinition.id() + 1, blockA);
+
+    assertThat(subject.getFirstIncompleteBlock().map(Block::getId)).hasValue(123L);
+  }
+
   @Test
   public void getFirstIncompleteBlock_emptyBlockList_returnsEmpty() {
     subject =
@@ -124,4 +124,66 @@ public class ProgramDefinitionTest {
     assertThat(program.hasQuestion(questionB)).isTrue();
     assertThat(program.hasQuestion(questionC)).isFalse();
   }
+
+  @Test
+  public void blockNavigation_usesBlockOrder() {
+    BlockDefinition blockA =
+        BlockDefinition.builder().setId(7L).setName("Block A").setDescription("").build();
+    BlockDefinition blockB =
+        BlockDefinition.builder().setId(3L).setName("Block B").setDescription("").build();
+    ProgramDefinition program =
+        ProgramDefinition.builder()
+            .setId(123L)
+            .setName("The Program")
+            .setDescription("This program is for testing.")
+            .addBlockDefinition(blockA)
+            .addBlockDefinition(blockB)
+            .build();
+
+    assertThat(program.getBlockDefinition(3L)).hasValue(blockB);
+    assertThat(program.getBlockDefinitionIndex(3L)).hasValue(1);
+    assertThat(program.getBlockDefinitionIndex(1L)).isEmpty();
+    assertThat(program.getBlockDefinitionAfter(7L)).hasValue(blockB);
+    assertThat(program.getBlockDefinitionAfter(3L)).isEmpty();
+    assertThat(program.getBlockDefinitionBefore(3L)).hasValue(blockA);
+    assertThat(program.getBlockDefinitionBefore(7L)).isEmpty();
+  }
+
+  @Test
+  public void questionAndScalarLookups() throws Exception {
+    QuestionDefinition question =
+        new QuestionDefinitionBuilder()
+            .setId(1L)
+            .setVersion(1L)
+            .setName("my name")
+            .setPath(Path.create("my.path.name"))
+            .setDescription("description")
+            .setQuestionType(QuestionType.TEXT)
+            .setQuestionText(ImmutableMap.of(Locale.ENGLISH, "question?"))
+            .setQuestionHelpText(ImmutableMap.of(Locale.ENGLISH, "help text"))
+            .build();
+    BlockDefinition emptyBlock =
+        BlockDefinition.builder().setId(1L).setName("Empty").setDescription("").build();
+    BlockDefinition questionBlock =
+        BlockDefinition.builder()
+            .setId(2L)
+            .setName("Question")
+            .setDescription("")
+            .addQuestion(ProgramQuestionDefinition.create(question))
+            .build();
+    ProgramDefinition program =
+        ProgramDefinition.builder()
+            .setId(123L)
+            .setName("The Program")
+            .setDescription("This program is for testing.")
+            .addBlockDefinition(emptyBlock)
+            .addBlockDefinition(questionBlock)
+            .build();
+
+    assertThat(program.getBlockDefinitionForQuestion(1L)).hasValue(questionBlock);
+    assertThat(program.getBlockDefinitionForQuestion(2L)).isEmpty();
+    assertThat(program.scalarTypes()).isEqualTo(questionBlock.scalarTypes());
+    assertThat(program.getScalarType(Path.create("my.path.name")))
+        .isEqualTo(questionBlock.getScalarType(Path.create("my.path.name")));
+  }
 }
@@ -6,12 +6,14 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import forms.BlockForm;
+import io.ebean.Ebean;
 import java.util.Locale;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
+import play.db.ebean.EbeanConfig;
 import repository.WithPostgresContainer;
 import services.Path;
 import services.question.AddressQuestionDefinition;
@@ -58,6 +60,21 @@ public class ProgramServiceImplTest extends WithPostgresContainer {
     assertThat(programDefinitions).containsExactly(first, second);
   }
 
+  @Test
+  public void getProgramDefinition_isCachedUntilProgramOrQuestionsChange() throws Exception {
+    ProgramDefinition program = ProgramBuilder.newProgram().buildDefinition();
+
+    ProgramDefinition first = ps.getProgramDefinition(program.id());
+    assertThat(ps.getProgramDefinition(program.id())).isSameAs(first);
+
+    ps.updateProgramDefinition(program.id(), "new name", "new description");
+    ProgramDefinition afterProgramUpdate = ps.getProgramDefinition(program.id());
+    assertThat(afterProgramUpdate.name()).isEqualTo("new name");
+
+    qs.create(SIMPLE_QUESTION);
+    assertThat(ps.getProgramDefinition(program.id())).isNotSameAs(afterProgramUpdate);
+  }
+
   @Test
   public void listProgramDefinitions_constructsQuestionDefinitions() throws Exception {
     QuestionDefinition question = qs.create(SIMPLE_QUESTION).getResult();
@@ -324,6 +341,27 @@ public class ProgramServiceImplTest extends WithPostgresContainer {
     assertThat(newBlock.programQuestionDefinitions()).hasSize(0);
   }
 
+  @Test
+  public void addBlockToProgram_staleCachedProgram_retriesWithNextFreeId() throws Exception {
+    ProgramDefinition programDefinition =
+        ProgramBuilder.newProgram().withBlock("Block 1").buildDefinition();
+    ps.getProgramDefinition(programDefinition.id());
+    // Another node adds block 2 without this node hearing about it yet.
+    Ebean.getServer(instanceOf(EbeanConfig.class).defaultServer())
+        .createSqlUpdate(
+            "insert into program_blocks (program_id, block_id, position, name, description)"
+                + " values (?, 2, 1, 'elsewhere', '')")
+        .setParameter(1, programDefinition.id())
+        .execute();
+
+    ProgramDefinition updated = ps.addBlockToProgram(programDefinition.id(), "added", "");
+
+    assertThat(updated.blockDefinitions())
+        .extracting(BlockDefinition::id)
+        .containsExactly(1L, 2L, 3L);
+    assertThat(updated.blockDefinitions().get(2).name()).isEqualTo("added");
+  }
+
   @Test
   public void addBlockToProgram_returnsProgramDefinitionWithBlock() throws Exception {
     ProgramDefinition programDefinition =
@@ -660,4 +698,71 @@ public class ProgramServiceImplTest extends WithPostgresContainer {
         blockResult.programQuestionDefinitions().get(0).getQuestionDefinition();
     assertThat(questionResult).isInstanceOf(NameQuestionDefinition.class);
   }
+
+  @Test
+  public void applyEdits_appliesEditsInOrder() throws Exception {
+    QuestionDefinition question = qs.create(SIMPLE_QUESTION).getResult();
+    ProgramDefinition programDefinition =
+        ProgramBuilder.newProgram().withBlock("block one").withBlock("block two").buildDefinition();
+    long programId = programDefinition.id();
+
+    ProgramDefinition result =
+        ps.applyEdits(
+            programId,
+            ImmutableList.of(
+                ProgramEdit.updateProgram("new name", "new description"),
+                ProgramEdit.deleteBlock(1L),
+                ProgramEdit.addBlock("block three", "", ImmutableList.of()),
+                ProgramEdit.addQuestionsToBlock(3L, ImmutableList.of(question.getId())),
+                ProgramEdit.setBlockHidePredicate(2L, Predicate.create("predicate"))));
+
+    assertThat(result.name()).isEqualTo("new name");
+    assertThat(result.blockDefinitions())
+        .extracting(BlockDefinition::name)
+        .containsExactly("block two", "block three");
+    assertThat(result.blockDefinitions().get(0).hidePredicate())
+        .hasValue(Predicate.create("predicate"));
+    assertThat(result.getQuestionDefinition(1, 0)).isInstanceOf(NameQuestionDefinition.class);
+    assertThat(ps.getProgramDefinition(programId)).isEqualTo(result);
+  }
+
+  @Test
+  public void applyEdits_staleCachedProgram_keepsConcurrentChange() throws Exception {
+    ProgramDefinition programDefinition =
+        ProgramBuilder.newProgram("name").withBlock("block one").buildDefinition();
+    long programId = programDefinition.id();
+    ps.getProgramDefinition(programId);
+    // Another admin renames the program on another node, which this node has not heard about yet.
+    Ebean.getServer(instanceOf(EbeanConfig.class).defaultServer())
+        .createSqlUpdate("update programs set name = 'renamed elsewhere' where id = ?")
+        .setParameter(1, programId)
+        .execute();
+
+    ProgramDefinition result =
+        ps.applyEdits(programId, ImmutableList.of(ProgramEdit.updateBlock(1L, "renamed", "")));
+
+    assertThat(result.name()).isEqualTo("renamed elsewhere");
+    assertThat(result.blockDefinitions().get(0).name()).isEqualTo("renamed");
+    ProgramDefinition stored = ps.getProgramDefinition(programId);
+    assertThat(stored.name()).isEqualTo("renamed elsewhere");
+    assertThat(stored.blockDefinitions().get(0).name()).isEqualTo("renamed");
+  }
+
+  @Test
+  public void applyEdits_failingEdit_writesNothing() throws Exception {
+    ProgramDefinition programDefinition =
+        ProgramBuilder.newProgram().withBlock("block one").buildDefinition();
+    long programId = programDefinition.id();
+
+    assertThatThrownBy(
+            () ->
+                ps.applyEdits(
+                    programId,
+                    ImmutableList.of(
+                        ProgramEdit.updateBlock(1L, "renamed", ""), ProgramEdit.deleteBlock(1L))))
+        .isInstanceOf(ProgramNeedsABlockException.class);
+
+    assertThat(ps.getProgramDefinition(programId).blockDefinitions().get(0).name())
+        .isEqualTo("block one");
+  }
 }
@@ -101,6 +101,23 @@ public class QuestionServiceImplTest extends WithPostgresContainer {
     assertThat(roService.getAllQuestions().size()).isEqualTo(1);
   }
 
+  @Test
+  public void getReadOnlyQuestionService_isReusedUntilQuestionsChange() {
+    ReadOnlyQuestionService first =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+    ReadOnlyQuestionService second =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+
+    assertThat(second).isSameAs(first);
+
+    questionService.create(questionDefinition);
+    ReadOnlyQuestionService afterCreate =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+
+    assertThat(afterCreate).isNotSameAs(first);
+    assertThat(afterCreate.getAllQuestions()).hasSize(1);
+  }
+
   @Test
   public void getReadOnlyQuestionService_empty() {
     CompletionStage<ReadOnlyQuestionService> completionStage =
@@ -152,4 +152,13 @@ public class ReadOnlyQuestionServiceImplTest {
   public void isValid_returnsTrueForScalar() {
     assertThat(service.isValid(Path.create("applicant.name.first"))).isTrue();
   }
+
+  @Test
+  public void forLocale_returnsViewWithoutChangingOriginal() {
+    ReadOnlyQuestionService french = service.forLocale(Locale.FRENCH);
+
+    assertThat(french.getPreferredLocale()).isEqualTo(Locale.FRENCH);
+    assertThat(french.getAllQuestions()).isEqualTo(service.getAllQuestions());
+    assertThat(service.getPreferredLocale()).isEqualTo(Locale.ENGLISH);
+  }
 }